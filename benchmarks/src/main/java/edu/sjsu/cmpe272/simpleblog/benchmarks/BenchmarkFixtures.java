@@ -0,0 +1,45 @@
+package edu.sjsu.cmpe272.simpleblog.benchmarks;
+
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogPost;
+import edu.sjsu.cmpe272.simpleblog.server.SigningPayload;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Shared key material and signed posts for the benchmarks, built the same way the server
+ * expects them to be signed.
+ */
+final class BenchmarkFixtures {
+    static final String AUTHOR = "bench";
+
+    private BenchmarkFixtures() {}
+
+    static KeyPair keyPair() throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        return keyGen.generateKeyPair();
+    }
+
+    static String encodedPublicKey(KeyPair keyPair) {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    static String attachment(int bytes) {
+        byte[] content = new byte[bytes];
+        new Random(42).nextBytes(content);
+        return Base64.getEncoder().encodeToString(content);
+    }
+
+    static MicroblogPost signedPost(KeyPair keyPair, String message, String attachment) throws Exception {
+        MicroblogPost post = new MicroblogPost("2024-01-01T00:00:00Z", AUTHOR, message, attachment, null);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        SigningPayload.update(signature, post.getDate(), post.getAuthor(), post.getMessage(), post.getAttachment());
+        post.setSignature(Base64.getEncoder().encodeToString(signature.sign()));
+        return post;
+    }
+}
@@ -0,0 +1,120 @@
+package edu.sjsu.cmpe272.simpleblog.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogPost;
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop concurrency sweep against a real server on localhost, once with Tomcat's
+ * platform-thread pool and once with virtual threads. Each client keeps one request in flight;
+ * the report shows where throughput stops growing with concurrency.
+ *
+ * <pre>mvn -pl benchmarks -am compile exec:java -Dexec.mainClass=edu.sjsu.cmpe272.simpleblog.benchmarks.ConcurrencyLoadTest</pre>
+ *
+ * Add {@code -Dloadtest.write-behind=true} to measure creates through the IngestQueue and
+ * {@code -Dloadtest.ids=time} to assign time-ordered ids instead of sequence blocks.
+ */
+public class ConcurrencyLoadTest {
+    private static final int[] CONCURRENCY = {50, 200, 1000, 2000};
+    private static final Duration RUN_TIME = Duration.ofSeconds(Long.getLong("loadtest.seconds", 10));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        new ConcurrencyLoadTest().run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        KeyPair keyPair = BenchmarkFixtures.keyPair();
+        byte[] createBody = objectMapper.writeValueAsBytes(toRequest(BenchmarkFixtures.signedPost(keyPair, "load", null)));
+        byte[] listBody = "{\"limit\": 20}".getBytes();
+
+        System.out.printf("%-9s %-8s %11s %12s %12s%n", "threads", "endpoint", "concurrency", "req/s", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = startServer(virtual)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String base = "http://localhost:" + port;
+                HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                post(http, base + "/user/create", objectMapper.writeValueAsBytes(
+                        Map.of("user", BenchmarkFixtures.AUTHOR, "publicKey", BenchmarkFixtures.encodedPublicKey(keyPair))));
+
+                for (int concurrency : CONCURRENCY) {
+                    report(virtual, "create", concurrency, drive(http, base + "/messages/create", createBody, concurrency));
+                    report(virtual, "list", concurrency, drive(http, base + "/messages/list", listBody, concurrency));
+                }
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startServer(boolean virtual) {
+        return new SpringApplication(MicroblogServer.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:load" + virtual,
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--microblog.data-dir=target/load-data",
+                "--microblog.virtual-threads.enabled=" + virtual,
+                "--microblog.ingest.write-behind=" + Boolean.getBoolean("loadtest.write-behind"),
+                "--microblog.ids=" + System.getProperty("loadtest.ids", "sequence"),
+                "--microblog.rate-limit.enabled=false");
+    }
+
+    private long[] drive(HttpClient http, String url, byte[] body, int concurrency) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + RUN_TIME.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            if (post(http, url, body) == 200) {
+                                completed.increment();
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                });
+            }
+        }
+        return new long[]{completed.sum(), errors.sum()};
+    }
+
+    private int post(HttpClient http, String url, byte[] body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void report(boolean virtual, String endpoint, int concurrency, long[] result) {
+        System.out.printf("%-9s %-8s %11d %12.0f %12d%n", virtual ? "virtual" : "platform", endpoint, concurrency,
+                result[0] / (double) RUN_TIME.toSeconds(), result[1]);
+    }
+
+    private Map<String, Object> toRequest(MicroblogPost post) {
+        return Map.of("date", post.getDate(), "author", post.getAuthor(), "message", post.getMessage(),
+                "signature", post.getSignature());
+    }
+}
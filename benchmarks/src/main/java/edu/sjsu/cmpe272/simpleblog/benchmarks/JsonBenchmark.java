@@ -0,0 +1,60 @@
+package edu.sjsu.cmpe272.simpleblog.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogPost;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson binding of MicroblogPost. Inbound requests carry the base64 attachment, outbound
+ * list rows only carry its metadata, so the two directions are measured separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"0", "65536"})
+    public int attachmentBytes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MicroblogPost post;
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = BenchmarkFixtures.keyPair();
+        String attachment = attachmentBytes == 0 ? null : BenchmarkFixtures.attachment(attachmentBytes);
+        post = BenchmarkFixtures.signedPost(keyPair, "hello from the benchmark", attachment);
+        post.setMessageId(1L);
+        if (attachment != null) {
+            post.setAttachmentHash("0".repeat(64));
+            post.setAttachmentSize((long) attachmentBytes);
+            post.setAttachmentType("application/octet-stream");
+        }
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("date", post.getDate());
+        request.put("author", post.getAuthor());
+        request.put("message", post.getMessage());
+        request.put("attachment", attachment);
+        request.put("signature", post.getSignature());
+        requestJson = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public MicroblogPost deserializeRequest() throws Exception {
+        return objectMapper.readValue(requestJson, MicroblogPost.class);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(post);
+    }
+}
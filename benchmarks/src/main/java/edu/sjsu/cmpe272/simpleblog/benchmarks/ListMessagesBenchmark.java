@@ -0,0 +1,85 @@
+package edu.sjsu.cmpe272.simpleblog.benchmarks;
+
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogController;
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogServer;
+import edu.sjsu.cmpe272.simpleblog.server.TimelineCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MicroblogController.listMessages against an in-memory H2 seeded with {@code rows} posts.
+ * The newest page is served by the TimelineCache; the middle page goes to the repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ListMessagesBenchmark {
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MicroblogController controller;
+    private Map<String, Object> newestPage;
+    private Map<String, Object> middlePage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(MicroblogServer.class);
+        context = application.run(
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:bench" + rows,
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--microblog.data-dir=target/bench-data");
+        controller = context.getBean(MicroblogController.class);
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(TimelineCache.class).reload();
+
+        newestPage = Map.of("limit", 20);
+        middlePage = Map.of("limit", 20, "next", rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> newestPage() {
+        return controller.listMessages(newestPage, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> middlePage() {
+        return controller.listMessages(middlePage, null, null);
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        String sql = "insert into microblog_post (message_id, date, author, message, signature) values (?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, "2024-01-01T00:00:00Z", BenchmarkFixtures.AUTHOR, "message " + id, "sig"});
+            if (batch.size() == SEED_BATCH) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+}
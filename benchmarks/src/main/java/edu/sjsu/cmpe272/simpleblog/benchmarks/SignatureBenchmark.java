@@ -0,0 +1,58 @@
+package edu.sjsu.cmpe272.simpleblog.benchmarks;
+
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogPost;
+import edu.sjsu.cmpe272.simpleblog.server.MicrobloggerService;
+import edu.sjsu.cmpe272.simpleblog.server.VerifySignature;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature verification on the create path. "cold" parses the author's key on every call the
+ * way the server did before keys were cached; "warm" reuses an already parsed key. The
+ * attachment variant signs a 1 MiB attachment; run it with {@code -prof gc} to see that verifying
+ * allocates the same small amount whatever the attachment size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureBenchmark {
+    private String encodedKey;
+    private PublicKey publicKey;
+    private MicroblogPost post;
+    private MicroblogPost attachmentPost;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = BenchmarkFixtures.keyPair();
+        encodedKey = BenchmarkFixtures.encodedPublicKey(keyPair);
+        publicKey = MicrobloggerService.getPublicKeyFromString(encodedKey);
+        post = BenchmarkFixtures.signedPost(keyPair, "hello from the benchmark", null);
+        attachmentPost = BenchmarkFixtures.signedPost(keyPair, "hello from the benchmark", BenchmarkFixtures.attachment(1 << 20));
+    }
+
+    @Benchmark
+    public PublicKey parsePublicKey() throws Exception {
+        return MicrobloggerService.getPublicKeyFromString(encodedKey);
+    }
+
+    @Benchmark
+    public boolean verifyColdKey() throws Exception {
+        return VerifySignature.AuthenticateSignature(post, MicrobloggerService.getPublicKeyFromString(encodedKey));
+    }
+
+    @Benchmark
+    public boolean verifyWarmKey() throws Exception {
+        return VerifySignature.AuthenticateSignature(post, publicKey);
+    }
+
+    @Benchmark
+    public boolean verifyWarmKeyWithAttachment() throws Exception {
+        return VerifySignature.AuthenticateSignature(attachmentPost, publicKey);
+    }
+}
@@ -0,0 +1,75 @@
+package edu.sjsu.cmpe272.simpleblog.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogPost;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against CBOR for the two payloads that dominate traffic: an inbound create request
+ * (signature and attachment) and an outbound list page of 20 rows. Encoded sizes are printed
+ * once per trial so throughput can be read alongside bytes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"0", "65536"})
+    public int attachmentBytes;
+
+    private ObjectMapper mapper;
+    private List<MicroblogPost> page;
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = format.equals("cbor") ? new CBORMapper() : new ObjectMapper();
+        KeyPair keyPair = BenchmarkFixtures.keyPair();
+        String attachment = attachmentBytes == 0 ? null : BenchmarkFixtures.attachment(attachmentBytes);
+
+        page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            MicroblogPost post = BenchmarkFixtures.signedPost(keyPair, "hello from the benchmark " + i, null);
+            post.setMessageId(1000L - i);
+            page.add(post);
+        }
+
+        MicroblogPost post = BenchmarkFixtures.signedPost(keyPair, "hello from the benchmark", attachment);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("date", post.getDate());
+        body.put("author", post.getAuthor());
+        body.put("message", post.getMessage());
+        body.put("attachment", attachment == null || !mapper.getFactory().canHandleBinaryNatively()
+                ? attachment : Base64.getDecoder().decode(attachment));
+        body.put("signature", mapper.getFactory().canHandleBinaryNatively()
+                ? Base64.getDecoder().decode(post.getSignature()) : post.getSignature());
+        request = mapper.writeValueAsBytes(body);
+
+        System.out.printf("%n%s: create request %d bytes, list page %d bytes%n",
+                format, request.length, mapper.writeValueAsBytes(page).length);
+    }
+
+    @Benchmark
+    public MicroblogPost deserializeRequest() throws Exception {
+        return mapper.readValue(request, MicroblogPost.class);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+}
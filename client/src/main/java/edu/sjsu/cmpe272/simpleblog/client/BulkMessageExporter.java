@@ -0,0 +1,207 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Pipelined export of the message list as JSON Lines. Pages are fetched by following the
+ * server's {@code X-Next-Cursor}, so the requests themselves are sequential: each one needs the
+ * cursor from the previous page's headers. What overlaps is everything after the headers. The
+ * next request goes out as soon as they arrive, while the current body is still being decoded
+ * with Jackson's streaming parser, and up to {@link #PAGES_AHEAD} decoded pages wait to be
+ * written in order. Memory is bounded by those pages rather than by the export size, and the
+ * request count by the posts that exist, however sparse the ids are. With verification on,
+ * each fetched page is checked on the fork-join pool while later pages are still downloading.
+ * With CBOR on, pages are requested as application/cbor, which carries signatures as raw bytes.
+ */
+class BulkMessageExporter {
+    static final int PAGE = 20;
+    static final int PAGES_AHEAD = 8;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    record Message(long messageId, String date, String author, String message,
+                   String attachmentHash, Long attachmentSize, String signature) {}
+
+    record Row(Message message, SignatureVerifier.Status status) {}
+
+    private record Page(String nextCursor, CompletableFuture<List<Row>> rows) {}
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final JsonFactory CBOR = new CBORFactory();
+
+    private final String serverUrl;
+    private final boolean cbor;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final SignatureVerifier verifier;
+
+    BulkMessageExporter(String serverUrl, boolean verify) {
+        this(serverUrl, verify, false);
+    }
+
+    BulkMessageExporter(String serverUrl, boolean verify, boolean cbor) {
+        this.serverUrl = serverUrl;
+        this.cbor = cbor;
+        this.verifier = verify ? new SignatureVerifier(serverUrl, http) : null;
+    }
+
+    /** Writes up to {@code count} messages with ids at or below {@code startingId} (-1 = newest). */
+    int export(long startingId, int count, OutputStream out) throws Exception {
+        int written = 0;
+        int requested = 0;
+        String nextRequest = "{\"limit\": " + PAGE + ", \"next\": " + startingId + "}";
+        Deque<CompletableFuture<List<Row>>> inFlight = new ArrayDeque<>();
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (written < count) {
+                while (inFlight.size() < PAGES_AHEAD && nextRequest != null && requested < count) {
+                    // Waits only for the headers, which carry the cursor for the page after this one.
+                    Page page = fetchPage(nextRequest).join();
+                    inFlight.add(page.rows());
+                    requested += PAGE;
+                    nextRequest = page.nextCursor() == null ? null
+                            : "{\"limit\": " + PAGE + ", \"cursor\": \"" + page.nextCursor() + "\"}";
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                for (Row row : inFlight.poll().join()) {
+                    if (written == count) {
+                        break;
+                    }
+                    write(generator, row);
+                    written++;
+                }
+                generator.flush();
+            }
+            inFlight.forEach(f -> f.cancel(true));
+        }
+        return written;
+    }
+
+    // Runs on the fork-join pool, so pages already fetched are verified in parallel.
+    private List<Row> verifyAll(List<Message> messages) {
+        List<Row> rows = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            rows.add(new Row(message, verifier == null ? null : verifier.verify(message)));
+        }
+        return rows;
+    }
+
+    // Completes once the response headers are in; the rows are decoded and verified on the
+    // fork-join pool. A null cursor means this is the last page.
+    private CompletableFuture<Page> fetchPage(String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serverUrl + "/messages/list"))
+                .header("Content-Type", "application/json")
+                .header("Accept", cbor ? "application/cbor" : "application/json")
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        try {
+                            response.body().close();
+                        } catch (IOException ignored) {
+                            // the status is what gets reported
+                        }
+                        throw new IllegalStateException("server returned " + response.statusCode());
+                    }
+                    String cursor = response.headers().firstValue(NEXT_CURSOR_HEADER).orElse(null);
+                    return new Page(cursor, CompletableFuture.supplyAsync(() -> verifyAll(read(response)), ForkJoinPool.commonPool()));
+                });
+    }
+
+    private List<Message> read(HttpResponse<InputStream> response) {
+        boolean gzip = response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent();
+        try (InputStream in = gzip ? new GZIPInputStream(response.body()) : response.body()) {
+            return parse(cbor ? CBOR : JSON, in);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static List<Message> parse(InputStream in) throws IOException {
+        return parse(JSON, in);
+    }
+
+    static List<Message> parse(JsonFactory format, InputStream in) throws IOException {
+        List<Message> messages = new ArrayList<>(PAGE);
+        try (JsonParser parser = format.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("expected an array of messages");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                messages.add(parseMessage(parser));
+            }
+        }
+        return messages;
+    }
+
+    private static Message parseMessage(JsonParser parser) throws IOException {
+        long id = 0;
+        Long attachmentSize = null;
+        String date = null, author = null, message = null, attachmentHash = null, signature = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "messageId", "message-id" -> id = parser.getLongValue();
+                case "date" -> date = parser.getValueAsString();
+                case "author" -> author = parser.getValueAsString();
+                case "message" -> message = parser.getValueAsString();
+                case "attachmentHash" -> attachmentHash = parser.getValueAsString();
+                case "attachmentSize" -> attachmentSize = value == JsonToken.VALUE_NULL ? null : parser.getLongValue();
+                case "signature" -> signature = value == JsonToken.VALUE_EMBEDDED_OBJECT
+                        ? Base64.getEncoder().encodeToString(parser.getBinaryValue())
+                        : parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return new Message(id, date, author, message, attachmentHash, attachmentSize, signature);
+    }
+
+    private static void write(JsonGenerator generator, Row row) throws IOException {
+        Message message = row.message();
+        generator.writeStartObject();
+        generator.writeNumberField("message-id", message.messageId());
+        generator.writeStringField("date", message.date());
+        generator.writeStringField("author", message.author());
+        generator.writeStringField("message", message.message());
+        if (message.attachmentHash() != null) {
+            generator.writeStringField("attachmentHash", message.attachmentHash());
+        }
+        if (message.attachmentSize() != null) {
+            generator.writeNumberField("attachmentSize", message.attachmentSize());
+        }
+        generator.writeStringField("signature", message.signature());
+        if (row.status() != null) {
+            generator.writeStringField("signature-status", row.status().name().toLowerCase());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
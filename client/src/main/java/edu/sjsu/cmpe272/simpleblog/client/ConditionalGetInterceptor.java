@@ -0,0 +1,171 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Asks for gzip on every call and remembers API pages (JSON or CBOR) that carried an ETag in a
+ * small on-disk cache, so a repeated GET revalidates with If-None-Match and a 304 is answered
+ * from disk. Other content, such as attachment downloads, passes through unbuffered.
+ */
+class ConditionalGetInterceptor implements ClientHttpRequestInterceptor {
+    private record Cached(String etag, String contentType, byte[] body) {}
+
+    private final Path directory;
+
+    ConditionalGetInterceptor(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        boolean get = request.getMethod() == HttpMethod.GET;
+        Path entry = get ? directory.resolve(key(request.getURI().toString())) : null;
+        Cached cached = get ? read(entry) : null;
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.etag());
+        }
+
+        ClientHttpResponse response = decompress(execution.execute(request, body));
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(cached.etag());
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+            return new Buffered(HttpStatus.OK, headers, cached.body());
+        }
+
+        String etag = response.getHeaders().getETag();
+        MediaType type = response.getHeaders().getContentType();
+        boolean page = type != null && (type.isCompatibleWith(MediaType.APPLICATION_JSON) || type.isCompatibleWith(MediaType.APPLICATION_CBOR));
+        if (!get || etag == null || !page || !response.getStatusCode().isSameCodeAs(HttpStatus.OK)) {
+            return response;
+        }
+        byte[] content;
+        try (InputStream in = response.getBody()) {
+            content = in.readAllBytes();
+        }
+        write(entry, new Cached(etag, type.toString(), content));
+        return new Buffered(response.getStatusCode(), response.getHeaders(), content);
+    }
+
+    private static ClientHttpResponse decompress(ClientHttpResponse response) throws IOException {
+        if (!"gzip".equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        InputStream body = new GZIPInputStream(response.getBody());
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() throws IOException {
+                return response.getStatusCode();
+            }
+
+            @Override
+            public String getStatusText() throws IOException {
+                return response.getStatusText();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public void close() {
+                response.close();
+            }
+        };
+    }
+
+    private static Cached read(Path entry) {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(entry))) {
+            return new Cached(in.readUTF(), in.readUTF(), in.readAllBytes());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // The cache is an optimisation only; a failed write just means the next call refetches.
+    private static void write(Path entry, Cached cached) {
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temp = Files.createTempFile(entry.getParent(), "page", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeUTF(cached.etag());
+                out.writeUTF(cached.contentType());
+                out.write(cached.body());
+            }
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String key(String uri) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(uri.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Buffered(HttpStatusCode status, HttpHeaders headers, byte[] body) implements ClientHttpResponse {
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Properties;
+
+/**
+ * mb.ini: the user name and RSA key pair as a properties file, with the keys in base64 DER
+ * (X.509 public, PKCS#8 private). Reading it needs only a KeyFactory, not Java serialization.
+ * Files written with Java serialization by older versions are still read, and are rewritten in
+ * this format the first time they are loaded.
+ */
+final class KeyFile {
+    record Keys(String username, PublicKey publicKey, PrivateKey privateKey) {}
+
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+
+    private KeyFile() {
+    }
+
+    static Keys load(Path path) throws IOException, GeneralSecurityException {
+        if (isSerialized(path)) {
+            Keys keys = loadSerialized(path);
+            save(path, keys.username(), new KeyPair(keys.publicKey(), keys.privateKey()));
+            return keys;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String username = properties.getProperty("username");
+        String publicKey = properties.getProperty("public-key");
+        String privateKey = properties.getProperty("private-key");
+        if (username == null || publicKey == null || privateKey == null) {
+            throw new IOException(path + " is missing username, public-key or private-key");
+        }
+        KeyFactory rsa = KeyFactory.getInstance("RSA");
+        return new Keys(username,
+                rsa.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey))),
+                rsa.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey))));
+    }
+
+    static void save(Path path, String username, KeyPair pair) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("username", username);
+        properties.setProperty("public-key", Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        properties.setProperty("private-key", Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+
+        // A temp file is owner-only on POSIX; moving it into place never leaves half a key file behind.
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "microblog user and key pair");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean isSerialized(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return ((in.read() << 8) | in.read()) == SERIALIZATION_MAGIC;
+        }
+    }
+
+    private static Keys loadSerialized(Path path) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(path))) {
+            return new Keys((String) in.readObject(), (PublicKey) in.readObject(), (PrivateKey) in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException(path + " is not a key file", e);
+        }
+    }
+}
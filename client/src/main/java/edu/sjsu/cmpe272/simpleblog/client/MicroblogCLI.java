@@ -1,23 +1,27 @@
 package edu.sjsu.cmpe272.simpleblog.client;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import picocli.CommandLine.*;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.*;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 @Command(name = "microblog-cli", mixinStandardHelpOptions = true, version = "1.0",
@@ -26,7 +30,10 @@ import java.util.stream.Collectors;
 public class MicroblogCLI {
 
     private static final String CONFIG_FILE_PATH = "mb.ini";
+    private static final String PAGE_CACHE_PATH = "mb.cache";
+    private static final String SERVER_URL = System.getProperty("microblog.server", "http://harshitspring.chickenkiller.com");
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper CBOR_MAPPER = new CBORMapper();
 
     @Command(name = "create", description = "Creates a unique id and stores it in the mb.ini.")
     static class CreateUserCommand implements Runnable {
@@ -47,11 +54,7 @@ public class MicroblogCLI {
                 KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
                 keyGen.initialize(2048);
                 KeyPair pair = keyGen.generateKeyPair();
-                try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(CONFIG_FILE_PATH))) {
-                    oos.writeObject(username);
-                    oos.writeObject(pair.getPublic());
-                    oos.writeObject(pair.getPrivate());
-                }
+                KeyFile.save(configFile.toPath(), username, pair);
 
                 System.out.printf("Your user ID has been generated and stored in %s.%n", CONFIG_FILE_PATH);
                 System.out.println("{ \"message\": \"welcome\" }");
@@ -69,53 +72,64 @@ public class MicroblogCLI {
         @Option(names = {"-f", "--files"}, description = "Optional file")
         private File attachmentFile;
 
-        private final RestTemplate restClient = new RestTemplate();
+        @Option(names = {"--cbor"}, description = "Send the message as CBOR, with signature and attachment as raw bytes.")
+        private boolean cbor;
 
         @Override
         public void run() {
             try {
-                Map<String, Object> userData = loadUserData(CONFIG_FILE_PATH);
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-
-                Map<String, Object> payload = constructPayload(userData);
-                String jsonToSign = OBJECT_MAPPER.writeValueAsString(payload);
-
-                String signature = signPayload(jsonToSign, (PrivateKey) userData.get("privateKey"));
+                KeyFile.Keys keys = KeyFile.load(Path.of(CONFIG_FILE_PATH));
+                Map<String, Object> payload = constructPayload(keys.username());
+                String signature = signPayload(payload, keys.privateKey());
                 payload.put("signature", signature);
 
-                String jsonPayload = OBJECT_MAPPER.writeValueAsString(payload);
-
-                HttpEntity<String> requestEntity = new HttpEntity<>(jsonPayload, headers);
-
-                ResponseEntity<String> response = restClient.postForEntity("http://harshitspring.chickenkiller.com/messages/create", requestEntity, String.class);
-                System.out.println("Server response: " + response.getBody());
+                // A plain HttpClient keeps this path free of Spring, so it starts fast from MicroblogMain too.
+                byte[] body = cbor ? CBOR_MAPPER.writeValueAsBytes(toBinary(payload)) : OBJECT_MAPPER.writeValueAsBytes(payload);
+                HttpRequest request = HttpRequest.newBuilder(URI.create(SERVER_URL + "/messages/create"))
+                        .header("Content-Type", cbor ? "application/cbor" : "application/json")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+                HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() >= 400) {
+                    System.err.printf("An error occurred: HTTP %d %s%n", response.statusCode(), response.body());
+                    return;
+                }
+                System.out.println("Server response: " + response.body());
             } catch (Exception e) {
                 System.err.println("An error occurred: " + e.getMessage());
                 System.out.println(e);
             }
         }
 
-        private String signPayload(String payload, PrivateKey privateKey) throws Exception {
-            Signature signature = Signature.getInstance("SHA256withRSA");
-            signature.initSign(privateKey);
-            signature.update(payload.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(signature.sign());
+        // CBOR has a byte string type, so the base64 fields go over the wire as their decoded bytes.
+        private static Map<String, Object> toBinary(Map<String, Object> payload) {
+            Map<String, Object> binary = new LinkedHashMap<>(payload);
+            for (String field : List.of("signature", "attachment")) {
+                if (binary.get(field) instanceof String encoded) {
+                    binary.put(field, Base64.getDecoder().decode(encoded));
+                }
+            }
+            return binary;
         }
 
-        private Map<String, Object> loadUserData(String configFilePath) throws IOException, ClassNotFoundException {
-            try (FileInputStream fis = new FileInputStream(configFilePath);
-                 ObjectInputStream ois = new ObjectInputStream(fis)) {
-                String username = (String) ois.readObject();
-                PublicKey publicKey = (PublicKey) ois.readObject();
-                PrivateKey privateKey = (PrivateKey) ois.readObject();
-                return Map.of("username", username, "publicKey", publicKey, "privateKey", privateKey);
+        // Signs the canonical payload, streaming the attachment from its file rather than the base64 copy.
+        private String signPayload(Map<String, Object> payload, PrivateKey privateKey) throws Exception {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(privateKey);
+            String date = (String) payload.get("date");
+            String author = (String) payload.get("author");
+            if (payload.containsKey("attachment")) {
+                try (InputStream attachment = Files.newInputStream(attachmentFile.toPath())) {
+                    SigningPayload.update(signature, date, author, messageText, attachment, Files.size(attachmentFile.toPath()));
+                }
+            } else {
+                SigningPayload.update(signature, date, author, messageText, null, -1);
             }
+            return Base64.getEncoder().encodeToString(signature.sign());
         }
 
-        private Map<String, Object> constructPayload(Map<String, Object> userData) throws GeneralSecurityException, IOException {
-            String username = (String) userData.get("username");
-
+        private Map<String, Object> constructPayload(String username) throws IOException {
             String utcDate = ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX"));
 
             Map<String, Object> payload = new LinkedHashMap<>();
@@ -138,7 +152,7 @@ public class MicroblogCLI {
     public static class ListMessagesCommand implements Runnable {
 
         @Option(names = {"--starting", "-s"}, description = "ID to start listing from.")
-        private Integer startingId = -1;
+        private long startingId = -1;
 
         @Option(names = {"--count", "-c"}, description = "Number of messages to retrieve.", defaultValue = "10")
         private int count;
@@ -146,14 +160,35 @@ public class MicroblogCLI {
         @Option(names = {"--save-attachment", "-sa"}, description = "Save attachments if present.")
         private boolean saveAttachment;
 
-        private final RestTemplate restClient = new RestTemplate();
+        @Option(names = {"--bulk", "-b"}, description = "Export as JSON Lines, decoding pages while the next one downloads.")
+        private boolean bulk;
+
+        @Option(names = {"--output", "-o"}, description = "File for --bulk output (default: stdout).")
+        private File output;
+
+        @Option(names = {"--verify", "-v"}, description = "Verify each message against its author's key (implies --bulk).")
+        private boolean verify;
+
+        @Option(names = {"--cbor"}, description = "Fetch --bulk pages as CBOR instead of JSON.")
+        private boolean cbor;
+
+        private RestTemplate restClient;
 
         @Override
         public void run() {
+            if (bulk || verify) {
+                runBulk();
+                return;
+            }
+            // Built here rather than at construction: picocli creates every subcommand on each launch.
+            // Pages are gzip-compressed on the wire and revalidated against mb.cache with ETags.
+            restClient = new RestTemplateBuilder()
+                    .additionalInterceptors(new ConditionalGetInterceptor(Path.of(PAGE_CACHE_PATH)))
+                    .build();
             int messagesFetched = 0;
             int messagesToFetch = count;
             while (messagesFetched < count) {
-                String url = String.format("http://harshitspring.chickenkiller.com/messages/list?limit=%d&next=%s",
+                String url = String.format(SERVER_URL + "/messages/list?limit=%d&next=%s",
                         Math.min(messagesToFetch, 20), startingId);
                 try {
                     ResponseEntity<String> response = restClient.getForEntity(url, String.class);
@@ -165,16 +200,16 @@ public class MicroblogCLI {
                         for (Map<String, Object> message : messages) {
                             try {
                                 displayMessage(message);
-                                if (saveAttachment && message.get("attachment") != null && !((String) message.get("attachment")).isEmpty()) {
-                                    saveAttachment((String) message.get("attachment"), (Integer) message.get("message-id"));
+                                if (saveAttachment && hasAttachment(message)) {
+                                    saveAttachment(messageId(message));
                                 }
 
                             } catch (Exception e) {
                                 System.out.println(e);
-                                System.err.printf("Exception while verifying signature for message-id: %s. Error: %s%n", message.get("message-id"), e.getMessage());
+                                System.err.printf("Exception while verifying signature for message-id: %s. Error: %s%n", messageId(message), e.getMessage());
                             }
                             messagesFetched++;
-                            startingId = (Integer) message.get("message-id") - 1;
+                            startingId = messageId(message) - 1;
                         }
 
                         messagesToFetch -= messages.size();
@@ -186,75 +221,51 @@ public class MicroblogCLI {
             }
         }
 
-        private void saveAttachment(String encodedAttachment, int messageId) {
+        private void runBulk() {
+            BulkMessageExporter exporter = new BulkMessageExporter(SERVER_URL, verify, cbor);
+            try (OutputStream file = output == null ? null : new BufferedOutputStream(new FileOutputStream(output))) {
+                int written = exporter.export(startingId, count, file == null ? System.out : file);
+                System.err.printf("Exported %d messages.%n", written);
+            } catch (Exception e) {
+                System.err.println("Bulk export failed: " + e.getMessage());
+            }
+        }
+
+        private void saveAttachment(long messageId) {
+            String url = String.format(SERVER_URL + "/messages/%d/attachment", messageId);
             try {
-                byte[] decodedBytes = Base64.getDecoder().decode(encodedAttachment);
                 Path path = Files.createTempFile("message-" + messageId, ".out");
-                Files.write(path, decodedBytes);
+                // Stream the raw bytes straight to disk instead of buffering a base64 copy.
+                restClient.execute(url, HttpMethod.GET, null, response -> {
+                    try (InputStream body = response.getBody()) {
+                        Files.copy(body, path, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return null;
+                });
                 System.out.printf("Attachment for message-id %d saved to: %s%n", messageId, path);
-            } catch (IOException e) {
+            } catch (Exception e) {
                 System.err.printf("Failed to save attachment for message-id %d: %s%n", messageId, e.getMessage());
             }
         }
 
+        // The server names the field messageId; older servers sent message-id.
+        private static long messageId(Map<String, Object> message) {
+            Object id = message.containsKey("messageId") ? message.get("messageId") : message.get("message-id");
+            return ((Number) id).longValue();
+        }
+
+        private boolean hasAttachment(Map<String, Object> message) {
+            return message.get("attachmentHash") != null;
+        }
+
         private void displayMessage(Map<String, Object> message) {
             String formattedMessage = "%s: %s %s says \"%s\"%s"
-                    .formatted(message.get("message-id"),
+                    .formatted(messageId(message),
                             message.get("date"),
                             message.get("author"),
                             message.get("message"),
-                            message.containsKey("attachment") && message.get("attachment") != null && !((String) message.get("attachment")).isEmpty() ? " 📎" : "");
+                            hasAttachment(message) ? " 📎" : "");
             System.out.println(formattedMessage);
         }
-
-        private boolean verifyMessageSignature(Map<String, Object> message) {
-            try {
-                PublicKey publicKey = loadPublicKey();
-                if (publicKey == null) {
-                    System.err.println("Public key not found.");
-                    return false;
-                }
-                Map<String, Object> verificationMap = message.entrySet().stream()
-                        .filter(e -> !e.getKey().equals("message-id") && !e.getKey().equals("signature"))
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-                String signatureData = (String) message.get("signature");
-                if (signatureData == null) {
-                    System.err.println("Signature not found in the data");
-                    return false;
-                }
-
-                String serializedData = constructSigningData(verificationMap);
-
-                Signature signature = Signature.getInstance("SHA256withRSA");
-                signature.initVerify(publicKey);
-                signature.update(serializedData.getBytes(StandardCharsets.UTF_8));
-
-                return signature.verify(Base64.getDecoder().decode(signatureData));
-            } catch (Exception e) {
-                System.err.printf("Verification failed: %s%n", e.getMessage());
-                return false;
-            }
-        }
-
-        private String constructSigningData(Map<String, Object> message) {
-            try {
-                return OBJECT_MAPPER.writeValueAsString(message);
-            } catch (JsonProcessingException e) {
-                System.err.println("Failed to serialize signed data: " + e.getMessage());
-                return null;
-            }
-        }
-
-        private PublicKey loadPublicKey() {
-            try (FileInputStream fis = new FileInputStream(CONFIG_FILE_PATH);
-                 ObjectInputStream ois = new ObjectInputStream(fis)) {
-                ois.readObject();
-                return (PublicKey) ois.readObject();
-            } catch (Exception e) {
-                System.err.printf("Failed to load public key: %s%n", e.getMessage());
-                return null;
-            }
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPairGenerator;
+
+/**
+ * Runs the CLI without Spring: picocli builds the commands itself, so a {@code post} costs a JVM
+ * start plus one HTTP call instead of an application context. This is the main class of the
+ * thin jar built by the {@code cds} profile; {@link ClientApplication} stays the default.
+ * <p>
+ * With {@code -Dmicroblog.training=true} it instead performs a representative offline run
+ * (write a key file, load it, sign and post to {@code microblog.server}) so that
+ * {@code -XX:ArchiveClassesAtExit} records the classes a real invocation loads.
+ */
+public final class MicroblogMain {
+    private MicroblogMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Boolean.getBoolean("microblog.training")) {
+            train();
+            return;
+        }
+        System.exit(new CommandLine(new MicroblogCLI()).execute(args));
+    }
+
+    private static void train() throws Exception {
+        if (!Files.exists(Path.of("mb.ini"))) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyFile.save(Path.of("mb.ini"), "training", generator.generateKeyPair());
+        }
+        CommandLine commandLine = new CommandLine(new MicroblogCLI());
+        commandLine.execute("post", "training run");
+        commandLine.execute("--help");
+    }
+}
@@ -0,0 +1,128 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies listed messages against their authors' registered keys. Each author's key is
+ * fetched from {@code GET /user/{username}/public-key} at most once and shared by every
+ * thread; concurrent first lookups for the same author wait on the same request.
+ * <p>
+ * Posts stored before the {@code simpleblog-sig-v1} payload were signed over date, author,
+ * message and base64 attachment simply concatenated. A signature that fails the v1 check is
+ * tried against that form too and reported as {@link Status#LEGACY} rather than invalid.
+ */
+class SignatureVerifier {
+    /** LEGACY: genuine, but over the old concatenated payload, whose fields are not delimited. */
+    enum Status { VALID, LEGACY, INVALID, UNKNOWN_AUTHOR, ERROR }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final ThreadLocal<Signature> VERIFIERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("SHA256withRSA");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final String serverUrl;
+    private final HttpClient http;
+    private final ConcurrentHashMap<String, CompletableFuture<PublicKey>> keys = new ConcurrentHashMap<>();
+
+    SignatureVerifier(String serverUrl, HttpClient http) {
+        this.serverUrl = serverUrl;
+        this.http = http;
+    }
+
+    Status verify(BulkMessageExporter.Message message) {
+        PublicKey publicKey;
+        try {
+            publicKey = keys.computeIfAbsent(message.author(), this::fetchKey).join();
+        } catch (CompletionException e) {
+            return Status.ERROR;
+        }
+        if (publicKey == null) {
+            return Status.UNKNOWN_AUTHOR;
+        }
+        try {
+            Signature signature = VERIFIERS.get();
+            signature.initVerify(publicKey);
+            if (message.attachmentHash() == null) {
+                SigningPayload.update(signature, message.date(), message.author(), message.message(), null, -1);
+            } else {
+                HttpResponse<InputStream> attachment = fetchAttachment(message.messageId());
+                try (InputStream body = attachment.body()) {
+                    long length = attachment.headers().firstValueAsLong("Content-Length").orElse(message.attachmentSize());
+                    SigningPayload.update(signature, message.date(), message.author(), message.message(), body, length);
+                }
+            }
+            byte[] signed = Base64.getDecoder().decode(message.signature());
+            if (signature.verify(signed)) {
+                return Status.VALID;
+            }
+            return verifiesLegacy(message, publicKey, signed) ? Status.LEGACY : Status.INVALID;
+        } catch (Exception e) {
+            return Status.ERROR;
+        }
+    }
+
+    // The old payload holds the attachment as base64 text, so only this fallback buffers it whole.
+    private boolean verifiesLegacy(BulkMessageExporter.Message message, PublicKey publicKey, byte[] signed) throws Exception {
+        String attachment = null;
+        if (message.attachmentHash() != null) {
+            try (InputStream body = fetchAttachment(message.messageId()).body()) {
+                attachment = Base64.getEncoder().encodeToString(body.readAllBytes());
+            }
+        }
+        Signature signature = VERIFIERS.get();
+        signature.initVerify(publicKey);
+        signature.update((message.date() + message.author() + message.message() + attachment).getBytes(StandardCharsets.UTF_8));
+        return signature.verify(signed);
+    }
+
+    private CompletableFuture<PublicKey> fetchKey(String author) {
+        String path = "/user/" + URLEncoder.encode(author, StandardCharsets.UTF_8).replace("+", "%20") + "/public-key";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serverUrl + path)).GET().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            try {
+                JsonNode body = OBJECT_MAPPER.readTree(response.body());
+                byte[] encoded = Base64.getDecoder().decode(body.get("public-key").asText());
+                return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(encoded));
+            } catch (Exception e) {
+                return null;
+            }
+        });
+    }
+
+    // Signatures cover the attachment, which the list no longer carries inline; it is streamed into the verifier.
+    private HttpResponse<InputStream> fetchAttachment(long messageId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serverUrl + "/messages/" + messageId + "/attachment")).GET().build();
+        HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IllegalStateException("attachment unavailable");
+        }
+        return response;
+    }
+}
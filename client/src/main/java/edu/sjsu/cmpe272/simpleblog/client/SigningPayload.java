@@ -0,0 +1,99 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.security.SignatureException;
+
+/**
+ * The canonical bytes a post signature covers, identical to the server's SigningPayload. After
+ * the {@link #VERSION} tag come date, author, message and the raw attachment, each preceded by
+ * its length in bytes as a big-endian long, or -1 when the field is absent. Text is UTF-8.
+ * The attachment is streamed into the {@link Signature} from a file or an HTTP response.
+ */
+final class SigningPayload {
+    static final byte[] VERSION = "simpleblog-sig-v1".getBytes(StandardCharsets.US_ASCII);
+
+    private SigningPayload() {
+    }
+
+    static void update(Signature signature, String date, String author, String message,
+                       InputStream attachment, long attachmentLength) throws SignatureException, IOException {
+        try {
+            write(new SignatureStream(signature), date, author, message, attachment, attachmentLength);
+        } catch (IOException e) {
+            if (e.getCause() instanceof SignatureException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static void write(OutputStream out, String date, String author, String message,
+                      InputStream attachment, long attachmentLength) throws IOException {
+        out.write(VERSION);
+        writeText(out, date);
+        writeText(out, author);
+        writeText(out, message);
+        if (attachment == null) {
+            writeLength(out, -1);
+            return;
+        }
+        writeLength(out, attachmentLength);
+        byte[] buffer = new byte[8192];
+        long remaining = attachmentLength;
+        int read;
+        while (remaining > 0 && (read = attachment.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        if (remaining != 0 || attachment.read() != -1) {
+            throw new IOException("attachment does not match its declared length");
+        }
+    }
+
+    private static void writeText(OutputStream out, String text) throws IOException {
+        if (text == null) {
+            writeLength(out, -1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeLength(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeLength(OutputStream out, long length) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (length >>> shift));
+        }
+    }
+
+    /** Feeds written bytes into a signature; SignatureExceptions travel as the cause of an IOException. */
+    private static final class SignatureStream extends OutputStream {
+        private final Signature signature;
+
+        SignatureStream(Signature signature) {
+            this.signature = signature;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                signature.update((byte) b);
+            } catch (SignatureException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                signature.update(b, off, len);
+            } catch (SignatureException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
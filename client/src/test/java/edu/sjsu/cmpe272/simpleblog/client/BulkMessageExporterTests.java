@@ -0,0 +1,218 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkMessageExporterTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+
+    // Ids with gaps, like the server's pooled sequence produces after a restart.
+    private final List<Long> ids = new ArrayList<>();
+
+    private KeyPair keyPair;
+    private final AtomicInteger keyRequests = new AtomicInteger();
+    private final AtomicInteger listRequests = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        for (long id = 1; id <= 45; id++) {
+            ids.add(id);
+        }
+        for (long id = 101; id <= 130; id++) {
+            ids.add(id);
+        }
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        keyPair = keyGen.generateKeyPair();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/user/a/public-key", exchange -> {
+            keyRequests.incrementAndGet();
+            byte[] json = objectMapper.writeValueAsBytes(
+                    Map.of("public-key", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())));
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+            exchange.close();
+        });
+        server.createContext("/messages/list", exchange -> {
+            listRequests.incrementAndGet();
+            Map<?, ?> body = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+            int limit = ((Number) body.get("limit")).intValue();
+            // Same contract as the server: "next" is the first id to return, the cursor an exclusive bound.
+            long before = Long.MAX_VALUE;
+            if (body.get("cursor") != null) {
+                String raw = new String(Base64.getUrlDecoder().decode((String) body.get("cursor")), StandardCharsets.UTF_8);
+                before = Long.parseLong(raw.substring("mid:".length()));
+            } else if (((Number) body.get("next")).longValue() != -1) {
+                before = ((Number) body.get("next")).longValue() + 1;
+            }
+            List<Map<String, Object>> page = new ArrayList<>();
+            for (int i = ids.size() - 1; i >= 0 && page.size() < limit; i--) {
+                if (ids.get(i) < before) {
+                    String message = "m" + ids.get(i);
+                    String signature = ids.get(i) % 10 == 5 ? signLegacy("d" + "a" + message + null)
+                            : sign("d", "a", message + (ids.get(i) % 10 == 0 ? "x" : ""));
+                    page.add(Map.of("messageId", ids.get(i), "date", "d", "author", "a", "message", message, "signature", signature));
+                }
+            }
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if (page.size() == limit) {
+                String last = "mid:" + page.get(page.size() - 1).get("messageId");
+                exchange.getResponseHeaders().add(BulkMessageExporter.NEXT_CURSOR_HEADER,
+                        Base64.getUrlEncoder().withoutPadding().encodeToString(last.getBytes(StandardCharsets.UTF_8)));
+            }
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void verifiesEachMessageFetchingTheAuthorKeyOnce() throws Exception {
+        BulkMessageExporter exporter = new BulkMessageExporter("http://localhost:" + server.getAddress().getPort(), true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(ids.size(), exporter.export(-1, 1000, out));
+
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            long id = row.get("message-id").asLong();
+            String expected = id % 10 == 0 ? "invalid" : id % 10 == 5 ? "legacy" : "valid";
+            assertEquals(expected, row.get("signature-status").asText());
+        }
+        assertEquals(1, keyRequests.get());
+    }
+
+    @Test
+    void exportsEveryMessageOnceNewestFirstAcrossIdGaps() throws Exception {
+        BulkMessageExporter exporter = new BulkMessageExporter("http://localhost:" + server.getAddress().getPort(), false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(70, exporter.export(-1, 70, out));
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            exported.add(objectMapper.readTree(line).get("message-id").asLong());
+        }
+        List<Long> expected = new ArrayList<>(ids);
+        Collections.reverse(expected);
+        assertEquals(expected.subList(0, 70), exported);
+    }
+
+    @Test
+    void stopsAfterTheLastPageWhenFewerThanCountExist() throws Exception {
+        // Gaps far wider than a page; the request count must follow the posts, not the id range.
+        ids.clear();
+        for (long id = 1; id <= 50; id++) {
+            ids.add(id * 1_000_000_007L);
+        }
+        assertEquals(List.of(ids.get(49), ids.get(48)), exportIds(-1, 1000).subList(0, 2));
+        assertEquals(3, listRequests.get());
+
+        listRequests.set(0);
+        assertEquals(List.of(ids.get(9), ids.get(8)), exportIds(ids.get(9), 2));
+        assertEquals(1, listRequests.get());
+    }
+
+    @Test
+    void pagesAcrossClusterNodeRanges() throws Exception {
+        // Cluster ids carry the node id above bit 40: node 0 from 1, node 1 from 2^40.
+        ids.clear();
+        for (long k = 1; k <= 30; k++) {
+            ids.add(k);
+        }
+        for (long k = 1; k <= 30; k++) {
+            ids.add((1L << 40) + k);
+        }
+        List<Long> exported = exportIds(-1, 1000);
+        assertEquals(60, exported.size());
+        assertEquals((1L << 40) + 30, exported.get(0));
+        assertEquals(List.of((1L << 40) + 1, 30L), exported.subList(29, 31));
+        assertEquals(4, listRequests.get());
+
+        listRequests.set(0);
+        assertEquals(List.of((1L << 40) + 2, (1L << 40) + 1, 30L), exportIds((1L << 40) + 2, 3));
+        assertEquals(1, listRequests.get());
+    }
+
+    @Test
+    void pagesAcrossTimeOrderedIds() throws Exception {
+        // Time ids keep milliseconds above bit 22: around 3e17 today, one post every few ms.
+        ids.clear();
+        for (long k = 0; k < 45; k++) {
+            ids.add(300_000_000_000_000_000L + k * 3 * (1L << 22) + k);
+        }
+        List<Long> exported = exportIds(-1, 1000);
+        List<Long> expected = new ArrayList<>(ids);
+        Collections.reverse(expected);
+        assertEquals(expected, exported);
+        assertEquals(3, listRequests.get());
+
+        listRequests.set(0);
+        assertEquals(expected.subList(5, 30), exportIds(expected.get(5), 25));
+        assertEquals(2, listRequests.get());
+    }
+
+    private List<Long> exportIds(long startingId, int count) throws Exception {
+        BulkMessageExporter exporter = new BulkMessageExporter("http://localhost:" + server.getAddress().getPort(), false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(startingId, count, out);
+        List<Long> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                exported.add(objectMapper.readTree(line).get("message-id").asLong());
+            }
+        }
+        return exported;
+    }
+
+    // The concatenated payload posts were signed with before simpleblog-sig-v1.
+    private String signLegacy(String payload) {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(keyPair.getPrivate());
+            signature.update(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(signature.sign());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String sign(String date, String author, String message) {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(keyPair.getPrivate());
+            SigningPayload.update(signature, date, author, message, null, -1);
+            return Base64.getEncoder().encodeToString(signature.sign());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConditionalGetInterceptorTests {
+    private static final String PAGE = "[{\"messageId\":1,\"message\":\"hello\"}]";
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/messages/list", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"top-10-1\"");
+            if ("\"top-10-1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            exchange.getResponseBody().write(compressed.toByteArray());
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void secondFetchIsServedFromCacheAfterNotModified() {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/messages/list?limit=10";
+        RestTemplate first = new RestTemplateBuilder().additionalInterceptors(new ConditionalGetInterceptor(cacheDir)).build();
+        assertEquals(PAGE, first.getForObject(url, String.class));
+
+        // A fresh client, as in a second CLI run, still revalidates against the on-disk cache.
+        RestTemplate second = new RestTemplateBuilder().additionalInterceptors(new ConditionalGetInterceptor(cacheDir)).build();
+        assertEquals(PAGE, second.getForObject(url, String.class));
+        assertEquals(1, fullResponses.get());
+    }
+}
@@ -0,0 +1,52 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class KeyFileTests {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsUserAndKeys() throws Exception {
+        KeyPair pair = keyPair();
+        Path file = dir.resolve("mb.ini");
+        KeyFile.save(file, "alice", pair);
+
+        KeyFile.Keys keys = KeyFile.load(file);
+        assertEquals("alice", keys.username());
+        assertArrayEquals(pair.getPublic().getEncoded(), keys.publicKey().getEncoded());
+        assertArrayEquals(pair.getPrivate().getEncoded(), keys.privateKey().getEncoded());
+    }
+
+    @Test
+    void migratesSerializedFiles() throws Exception {
+        KeyPair pair = keyPair();
+        Path file = dir.resolve("mb.ini");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeObject("bob");
+            out.writeObject(pair.getPublic());
+            out.writeObject(pair.getPrivate());
+        }
+
+        assertEquals("bob", KeyFile.load(file).username());
+        assertNotEquals((byte) 0xAC, Files.readAllBytes(file)[0]);
+        assertArrayEquals(pair.getPrivate().getEncoded(), KeyFile.load(file).privateKey().getEncoded());
+    }
+
+    private static KeyPair keyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
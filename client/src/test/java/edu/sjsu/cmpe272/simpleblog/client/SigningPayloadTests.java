@@ -0,0 +1,38 @@
+package edu.sjsu.cmpe272.simpleblog.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SigningPayloadTests {
+    // The server's SigningPayloadTests pins the same bytes; change both or neither.
+    static final String WITH_ATTACHMENT = "73696d706c65626c6f672d7369672d76310000000000000014323032342d30312d30315430303a30303a30305a"
+            + "0000000000000005616c696365000000000000000a68c3a96c6c6f20e29c930000000000000003010203";
+    static final String WITHOUT_ATTACHMENT = "73696d706c65626c6f672d7369672d76310000000000000014323032342d30312d30315430303a30303a30305a"
+            + "0000000000000005616c696365000000000000000a68c3a96c6c6f20e29c93ffffffffffffffff";
+
+    @Test
+    void matchesServerGoldenVectors() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SigningPayload.write(out, "2024-01-01T00:00:00Z", "alice", "héllo ✓", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+        assertEquals(WITH_ATTACHMENT, HexFormat.of().formatHex(out.toByteArray()));
+
+        out.reset();
+        SigningPayload.write(out, "2024-01-01T00:00:00Z", "alice", "héllo ✓", null, -1);
+        assertEquals(WITHOUT_ATTACHMENT, HexFormat.of().formatHex(out.toByteArray()));
+    }
+
+    @Test
+    void rejectsAttachmentsOfTheWrongLength() {
+        assertThrows(IOException.class, () -> SigningPayload.write(new ByteArrayOutputStream(), "d", "a", "m",
+                new ByteArrayInputStream(new byte[]{1, 2, 3}), 2));
+        assertThrows(IOException.class, () -> SigningPayload.write(new ByteArrayOutputStream(), "d", "a", "m",
+                new ByteArrayInputStream(new byte[]{1, 2, 3}), 4));
+    }
+}
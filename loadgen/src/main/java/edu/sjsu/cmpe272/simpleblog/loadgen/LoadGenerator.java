@@ -0,0 +1,240 @@
+package edu.sjsu.cmpe272.simpleblog.loadgen;
+
+import edu.sjsu.cmpe272.simpleblog.server.MicroblogServer;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Open-loop load against the real HTTP endpoints. Requests are scheduled at a constant
+ * arrival rate and sent asynchronously, so a slow response never delays the next send; a mix
+ * of {@code /messages/create} (pre-signed posts from registered synthetic users) and
+ * {@code /messages/list} reads. Each read belongs to one of {@code users} readers, who page
+ * down through {@code X-Next-Cursor} for up to {@code read-depth} pages before starting
+ * again at the top, so deep keyset pages are exercised as well as the cached first one.
+ * Latency is reported from each request's scheduled start as well as from its actual send.
+ *
+ * <pre>mvn -pl loadgen compile exec:exec@loadgen -Dloadgen.args="--rate=300 --duration=60"</pre>
+ *
+ * Without {@code --target} a server is started in this JVM on a random local port with an
+ * in-memory database and rate limiting off, since every synthetic user shares one client IP.
+ * Pass {@code --target=http://localhost:8080} to drive a separately started server instead.
+ */
+public class LoadGenerator {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private record Pending(OperationStats stats, long intended) {}
+
+    // A reader's position: the cursor of its next page and how many pages deep that is.
+    private record ReadPosition(String cursor, int depth) {}
+
+    private final LoadProfile profile;
+    private final URI target;
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final OperationStats creates = new OperationStats("create");
+    private final OperationStats lists = new OperationStats("list");
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong maxSendLagNanos = new AtomicLong();
+    // Measured requests sent but not yet answered, by schedule slot.
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    LoadGenerator(LoadProfile profile, URI target) {
+        this.profile = profile;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(args);
+        ConfigurableApplicationContext server = null;
+        String target = profile.target();
+        if (target == null) {
+            server = startServer();
+            target = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+        }
+        try {
+            new LoadGenerator(profile, URI.create(target)).run();
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startServer() {
+        return new SpringApplication(MicroblogServer.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:loadgen",
+                "--microblog.data-dir=target/loadgen-data",
+                "--microblog.rate-limit.enabled=false");
+    }
+
+    void run() throws Exception {
+        System.out.printf("Preparing %d users and %d signed posts...%n", profile.users(), profile.posts());
+        SyntheticCorpus corpus = SyntheticCorpus.build(profile, http, target);
+        System.out.printf("Corpus ready: %d posts, %d attachment bytes in total.%n", corpus.size(), corpus.attachmentBytes());
+
+        AtomicReferenceArray<ReadPosition> readers = new AtomicReferenceArray<>(profile.users());
+        Random mix = new Random(profile.seed());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.rate();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        long createCount = 0;
+
+        System.out.printf("Running %.0f req/s for %ds after %ds of warmup against %s%n",
+                profile.rate(), profile.duration().toSeconds(), profile.warmup().toSeconds(), target);
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            if (mix.nextDouble() < profile.readRatio()) {
+                int reader = mix.nextInt(readers.length());
+                send(i, listRequest(readers.get(reader)), lists, measured, intended, false,
+                        response -> readers.set(reader, nextPosition(readers.get(reader), response)));
+            } else {
+                HttpRequest create = HttpRequest.newBuilder(target.resolve("/messages/create"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(corpus.post(createCount++)))
+                        .build();
+                send(i, create, creates, measured, intended, true, null);
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long gaveUp = System.nanoTime();
+        // Whichever side removes a slot first counts it, so a late answer is never counted twice.
+        for (Long slot : pending.keySet()) {
+            Pending request = pending.remove(slot);
+            if (request != null) {
+                request.stats().unanswered(request.intended(), gaveUp);
+            }
+        }
+        creates.closeDrops(gaveUp);
+        lists.closeDrops(gaveUp);
+        report(List.of(creates, lists), inFlight.get());
+    }
+
+    private HttpRequest listRequest(ReadPosition position) {
+        String query = "/messages/list?limit=10";
+        if (position != null) {
+            query += "&cursor=" + URLEncoder.encode(position.cursor(), StandardCharsets.UTF_8);
+        }
+        return HttpRequest.newBuilder(target.resolve(query)).GET().build();
+    }
+
+    // Follows the page's cursor until read-depth pages are read or the list ends, then restarts at the top.
+    private ReadPosition nextPosition(ReadPosition current, HttpResponse<String> response) {
+        int depth = current == null ? 1 : current.depth() + 1;
+        String cursor = response.headers().firstValue(NEXT_CURSOR_HEADER).orElse(null);
+        return cursor == null || depth >= profile.readDepth() ? null : new ReadPosition(cursor, depth);
+    }
+
+    private void send(long slot, HttpRequest request, OperationStats stats, boolean measured, long intended, boolean create,
+                      Consumer<HttpResponse<String>> onResponse) {
+        if (inFlight.incrementAndGet() > profile.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                stats.dropped(intended);
+            }
+            return;
+        }
+        long sent = System.nanoTime();
+        maxSendLagNanos.accumulateAndGet(sent - intended, Math::max);
+        if (measured) {
+            stats.sent.increment();
+            pending.put(slot, new Pending(stats, intended));
+        }
+        // Creates answer 200 with an error body when verification fails, so look for the id.
+        HttpResponse.BodyHandler<String> handler = create ? HttpResponse.BodyHandlers.ofString()
+                : HttpResponse.BodyHandlers.replacing(null);
+        http.sendAsync(request, handler).whenComplete((response, error) -> {
+            long done = System.nanoTime();
+            inFlight.decrementAndGet();
+            if (response != null && onResponse != null) {
+                onResponse.accept(response);
+            }
+            if (!measured || pending.remove(slot) == null) {
+                return;
+            }
+            if (error != null) {
+                stats.failed(error, intended, done);
+                return;
+            }
+            boolean success = response.statusCode() == 200 && (!create || response.body().contains("message-id"));
+            stats.completed(response.statusCode(), success, intended, sent, done);
+        });
+    }
+
+    private void report(List<OperationStats> operations, int unfinished) {
+        double seconds = profile.duration().toNanos() / 1e9;
+        System.out.println();
+        System.out.printf("%-8s %8s %9s %8s %6s %6s %6s %7s %8s %10s%n",
+                "op", "sent", "ok/s", "ok", "429", "503", "other", "failed", "dropped", "unanswered");
+        for (OperationStats stats : operations) {
+            System.out.printf("%-8s %8d %9.1f %8d %6d %6d %6d %7d %8d %10d%n", stats.name, stats.sent.sum(),
+                    stats.ok.sum() / seconds, stats.ok.sum(), stats.rateLimited.sum(), stats.unavailable.sum(),
+                    stats.otherStatus.sum(), stats.failed.sum(), stats.dropped.sum(), stats.unanswered.sum());
+        }
+        for (OperationStats stats : operations) {
+            stats.failureCauses.forEach((cause, count) -> System.out.printf("  %s failed %d x %s%n", stats.name, count.sum(), cause));
+        }
+        System.out.println();
+        System.out.println("Response time from scheduled start (corrected for coordinated omission), successful requests, ms:");
+        printPercentiles(operations, stats -> stats.responseTime);
+        System.out.println("Response time from scheduled start, every request; drops and unanswered requests count until the run gave up, ms:");
+        printPercentiles(operations, stats -> stats.everyResponseTime);
+        System.out.println("Service time from actual send, successful requests, ms:");
+        printPercentiles(operations, stats -> stats.serviceTime);
+        System.out.printf("Largest send delay behind schedule: %.1f ms%s%n", maxSendLagNanos.get() / 1e6,
+                unfinished > 0 ? "; " + unfinished + " requests still unanswered after the drain timeout" : "");
+    }
+
+    private static void printPercentiles(List<OperationStats> operations, Function<OperationStats, Histogram> population) {
+        System.out.printf("%-8s %9s %9s %9s %9s %9s%n", "op", "p50", "p90", "p99", "p99.9", "max");
+        for (OperationStats stats : operations) {
+            Histogram histogram = population.apply(stats);
+            System.out.printf("%-8s %9.2f %9.2f %9.2f %9.2f %9.2f%n", stats.name,
+                    histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(90) / 1e3,
+                    histogram.getValueAtPercentile(99) / 1e3, histogram.getValueAtPercentile(99.9) / 1e3,
+                    histogram.getMaxValue() / 1e3);
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,98 @@
+package edu.sjsu.cmpe272.simpleblog.loadgen;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * What to run, parsed from {@code --name=value} arguments. Every option has a default, so an
+ * empty argument list starts an in-process server and drives it for 30 seconds.
+ *
+ * @param target         base URL of a running server; null starts one in-process on a random local port
+ * @param users          synthetic users registered before the run
+ * @param posts          distinct pre-signed posts, replayed round-robin
+ * @param attachments    attachment size distribution
+ * @param rate           total requests per second, spread evenly in time
+ * @param readRatio      share of requests that are list reads rather than creates
+ * @param readDepth      pages a reader follows through X-Next-Cursor before starting again at the top
+ * @param duration       measured run length
+ * @param warmup         run length before measurement starts
+ * @param maxInFlight    requests outstanding at once before new ones count as dropped
+ * @param seed           seed for the request mix and attachment sizes
+ */
+record LoadProfile(String target, int users, int posts, AttachmentSizes attachments, double rate, double readRatio,
+                   int readDepth, Duration duration, Duration warmup, int maxInFlight, long seed) {
+
+    static LoadProfile parse(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        LoadProfile profile = new LoadProfile(
+                options.remove("target"),
+                Integer.parseInt(take(options, "users", "50")),
+                Integer.parseInt(take(options, "posts", "2000")),
+                AttachmentSizes.parse(take(options, "attachments", "0:90,4096:8,262144:2")),
+                Double.parseDouble(take(options, "rate", "200")),
+                Double.parseDouble(take(options, "read-ratio", "0.8")),
+                Integer.parseInt(take(options, "read-depth", "5")),
+                Duration.ofSeconds(Long.parseLong(take(options, "duration", "30"))),
+                Duration.ofSeconds(Long.parseLong(take(options, "warmup", "5"))),
+                Integer.parseInt(take(options, "max-in-flight", "10000")),
+                Long.parseLong(take(options, "seed", "42")));
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("unknown options " + options.keySet());
+        }
+        if (profile.rate() <= 0 || profile.users() < 1 || profile.posts() < 1 || profile.readDepth() < 1
+                || profile.readRatio() < 0 || profile.readRatio() > 1) {
+            throw new IllegalArgumentException("rate, users, posts and read-depth must be positive and read-ratio within [0, 1]");
+        }
+        return profile;
+    }
+
+    private static String take(Map<String, String> options, String name, String defaultValue) {
+        String value = options.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    /** Attachment sizes in bytes with relative weights, written {@code size:weight,...}; size 0 means none. */
+    record AttachmentSizes(int[] sizes, double[] cumulative) {
+        static AttachmentSizes parse(String spec) {
+            String[] entries = spec.split(",");
+            int[] sizes = new int[entries.length];
+            double[] cumulative = new double[entries.length];
+            double total = 0;
+            for (int i = 0; i < entries.length; i++) {
+                String[] parts = entries[i].trim().split(":");
+                sizes[i] = Integer.parseInt(parts[0]);
+                double weight = parts.length > 1 ? Double.parseDouble(parts[1]) : 1;
+                if (sizes[i] < 0 || weight < 0) {
+                    throw new IllegalArgumentException("negative attachment size or weight in " + spec);
+                }
+                total += weight;
+                cumulative[i] = total;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("attachment weights must not all be zero");
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= total;
+            }
+            return new AttachmentSizes(sizes, cumulative);
+        }
+
+        int sample(Random random) {
+            double r = random.nextDouble();
+            for (int i = 0; i < cumulative.length; i++) {
+                if (r < cumulative[i]) {
+                    return sizes[i];
+                }
+            }
+            return sizes[sizes.length - 1];
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.sjsu.cmpe272.simpleblog.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes and latencies of one request type. Two latencies are kept per successful request:
+ * response time counts from when the request was scheduled to go out, service time from
+ * when it actually did. Under an open-loop schedule the first includes any time spent queued
+ * behind a stalled server or client, which is what coordinated omission would otherwise hide.
+ * <p>
+ * Successes alone flatter an overloaded server, so every measured request also goes into
+ * {@link #everyResponseTime}: error statuses and client failures when they come back, and
+ * requests dropped at the in-flight cap or still unanswered after the drain at the moment the
+ * run gave up on them, a lower bound on what their callers would have waited.
+ */
+final class OperationStats {
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    final String name;
+    final Histogram responseTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    final Histogram everyResponseTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    final LongAdder sent = new LongAdder();
+    final LongAdder ok = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+    final LongAdder unavailable = new LongAdder();
+    final LongAdder otherStatus = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final Map<String, LongAdder> failureCauses = new ConcurrentHashMap<>();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder unanswered = new LongAdder();
+    // Scheduled starts of dropped requests, recorded once the run knows when it gave up.
+    private final Queue<Long> droppedIntended = new ConcurrentLinkedQueue<>();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void failed(Throwable error, long intendedNanos, long doneNanos) {
+        failed.increment();
+        everyResponseTime.recordValue(micros(doneNanos - intendedNanos));
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        failureCauses.computeIfAbsent(cause.getClass().getSimpleName() + ": " + cause.getMessage(), k -> new LongAdder()).increment();
+    }
+
+    void completed(int status, boolean success, long intendedNanos, long sentNanos, long doneNanos) {
+        everyResponseTime.recordValue(micros(doneNanos - intendedNanos));
+        if (success) {
+            ok.increment();
+            responseTime.recordValue(micros(doneNanos - intendedNanos));
+            serviceTime.recordValue(micros(doneNanos - sentNanos));
+        } else if (status == 429) {
+            rateLimited.increment();
+        } else if (status == 503) {
+            unavailable.increment();
+        } else {
+            otherStatus.increment();
+        }
+    }
+
+    void dropped(long intendedNanos) {
+        dropped.increment();
+        droppedIntended.add(intendedNanos);
+    }
+
+    void unanswered(long intendedNanos, long gaveUpNanos) {
+        unanswered.increment();
+        everyResponseTime.recordValue(micros(gaveUpNanos - intendedNanos));
+    }
+
+    /** Records every drop as waiting until {@code gaveUpNanos}; called once, after the drain. */
+    void closeDrops(long gaveUpNanos) {
+        for (Long intended; (intended = droppedIntended.poll()) != null; ) {
+            everyResponseTime.recordValue(micros(gaveUpNanos - intended));
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
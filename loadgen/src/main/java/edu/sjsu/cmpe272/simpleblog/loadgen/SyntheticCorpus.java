@@ -0,0 +1,123 @@
+package edu.sjsu.cmpe272.simpleblog.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.sjsu.cmpe272.simpleblog.server.SigningPayload;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Synthetic users and their posts, prepared before the run. Every user is registered through
+ * {@code POST /user/create} and every post is signed and serialized up front, so the replay
+ * loop only sends bytes and the generator's own CPU use does not vary with the mix.
+ */
+final class SyntheticCorpus {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<byte[]> posts;
+    private final long attachmentBytes;
+
+    private SyntheticCorpus(List<byte[]> posts, long attachmentBytes) {
+        this.posts = posts;
+        this.attachmentBytes = attachmentBytes;
+    }
+
+    static SyntheticCorpus build(LoadProfile profile, HttpClient http, URI target) throws Exception {
+        // A per-run prefix keeps names unique when the same server is driven more than once.
+        String prefix = "load-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+        List<KeyPair> keys = IntStream.range(0, profile.users()).parallel().mapToObj(i -> generateKeyPair()).toList();
+        for (int i = 0; i < keys.size(); i++) {
+            register(http, target, prefix + i, keys.get(i));
+        }
+
+        String date = ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX"));
+        Random random = new Random(profile.seed());
+        int[] sizes = new int[profile.posts()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = profile.attachments().sample(random);
+        }
+        List<byte[]> posts = IntStream.range(0, profile.posts()).parallel().mapToObj(i -> {
+            int user = i % keys.size();
+            return signedPost(keys.get(user), prefix + user, date, "load test post " + i, attachment(sizes[i], profile.seed() + i));
+        }).toList();
+        return new SyntheticCorpus(posts, IntStream.of(sizes).asLongStream().sum());
+    }
+
+    /** The request body for the {@code n}th create; the corpus repeats once exhausted. */
+    byte[] post(long n) {
+        return posts.get((int) (n % posts.size()));
+    }
+
+    int size() {
+        return posts.size();
+    }
+
+    long attachmentBytes() {
+        return attachmentBytes;
+    }
+
+    private static void register(HttpClient http, URI target, String user, KeyPair keyPair) throws Exception {
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        HttpRequest request = HttpRequest.newBuilder(target.resolve("/user/create"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(Map.of("user", user, "publicKey", publicKey))))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || !response.body().contains("welcome")) {
+            throw new IllegalStateException("registering " + user + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static byte[] signedPost(KeyPair keyPair, String author, String date, String message, String attachment) {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(keyPair.getPrivate());
+            SigningPayload.update(signature, date, author, message, attachment);
+
+            Map<String, Object> post = new LinkedHashMap<>();
+            post.put("date", date);
+            post.put("author", author);
+            post.put("message", message);
+            if (attachment != null) {
+                post.put("attachment", attachment);
+            }
+            post.put("signature", Base64.getEncoder().encodeToString(signature.sign()));
+            return OBJECT_MAPPER.writeValueAsBytes(post);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String attachment(int size, long seed) {
+        if (size == 0) {
+            return null;
+        }
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        return Base64.getEncoder().encodeToString(content);
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
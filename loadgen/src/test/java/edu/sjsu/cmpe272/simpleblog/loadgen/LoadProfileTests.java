@@ -0,0 +1,42 @@
+package edu.sjsu.cmpe272.simpleblog.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadProfileTests {
+
+    @Test
+    void parsesOptionsOverDefaults() {
+        LoadProfile profile = LoadProfile.parse("--rate=500", "--duration=10", "--read-ratio=0.5");
+        assertEquals(500, profile.rate());
+        assertEquals(Duration.ofSeconds(10), profile.duration());
+        assertEquals(0.5, profile.readRatio());
+        assertEquals(50, profile.users());
+        assertEquals(5, profile.readDepth());
+        assertNull(profile.target());
+
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("--rtae=500"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("--read-ratio=2"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("--read-depth=0"));
+    }
+
+    @Test
+    void attachmentSizesFollowTheirWeights() {
+        LoadProfile.AttachmentSizes sizes = LoadProfile.AttachmentSizes.parse("0:3,1024:1");
+        Random random = new Random(1);
+        int withAttachment = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int size = sizes.sample(random);
+            assertTrue(size == 0 || size == 1024);
+            withAttachment += size > 0 ? 1 : 0;
+        }
+        assertTrue(withAttachment > 2_200 && withAttachment < 2_800, "got " + withAttachment);
+    }
+}
@@ -0,0 +1,94 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap gatekeeping for the create paths. The per-client-IP token bucket is checked before any
+ * RSA work; the per-author bucket only after a signature has proven the author, since the
+ * author field is otherwise just a claim. A global cap on concurrent verifications
+ * sheds load once verify latency (an EWMA) climbs past its target, at which point the cap
+ * tightens to the core count since further verifications would only queue for CPU.
+ */
+@Component
+public class AdmissionControl {
+    private static final double EWMA_WEIGHT = 0.1;
+
+    private final boolean enabled;
+    private final TokenBucketLimiter authors;
+    private final TokenBucketLimiter clients;
+    private final int ipBurst;
+    private final int maxConcurrent;
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    private final long latencyTargetNanos;
+    private final AtomicInteger verifying = new AtomicInteger();
+    private final AtomicLong verifyEwma = new AtomicLong(Double.doubleToLongBits(0));
+
+    public AdmissionControl(@Value("${microblog.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${microblog.rate-limit.author.per-second:10}") double authorRate,
+                            @Value("${microblog.rate-limit.author.burst:50}") int authorBurst,
+                            @Value("${microblog.rate-limit.ip.per-second:50}") double ipRate,
+                            @Value("${microblog.rate-limit.ip.burst:200}") int ipBurst,
+                            @Value("${microblog.rate-limit.max-keys:100000}") int maxKeys,
+                            @Value("${microblog.admission.max-concurrent-verifies:0}") int maxConcurrent,
+                            @Value("${microblog.admission.verify-latency-target-ms:100}") long latencyTargetMs) {
+        this.enabled = enabled;
+        this.authors = new TokenBucketLimiter(authorRate, authorBurst, maxKeys, System::nanoTime);
+        this.clients = new TokenBucketLimiter(ipRate, ipBurst, maxKeys, System::nanoTime);
+        this.ipBurst = ipBurst;
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : 4 * cores;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+    }
+
+    /** The largest cost {@link #checkClient} can ever admit; larger requests must be refused outright. */
+    public int maxClientCost() {
+        return enabled ? ipBurst : Integer.MAX_VALUE;
+    }
+
+    /** Charges {@code cost} posts to the client address; returns 0 or the seconds to wait before retrying. */
+    public long checkClient(String clientIp, int cost) {
+        return enabled && clientIp != null ? retryAfter(clients.tryAcquire(clientIp, cost)) : 0;
+    }
+
+    /** Charges {@code cost} posts to the author; returns 0 or the seconds to wait before retrying. */
+    public long checkAuthor(String author, int cost) {
+        return enabled && author != null ? retryAfter(authors.tryAcquire(author.toLowerCase(Locale.ROOT), cost)) : 0;
+    }
+
+    /** Claims a verification slot; false means the server is shedding load. */
+    public boolean enterVerify() {
+        if (!enabled) {
+            return true;
+        }
+        int limit = Double.longBitsToDouble(verifyEwma.get()) > latencyTargetNanos ? Math.min(maxConcurrent, cores) : maxConcurrent;
+        while (true) {
+            int current = verifying.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (verifying.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void exitVerify(long elapsedNanos) {
+        if (!enabled) {
+            return;
+        }
+        verifying.decrementAndGet();
+        verifyEwma.getAndUpdate(bits -> {
+            double ewma = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(ewma + EWMA_WEIGHT * (elapsedNanos - ewma));
+        });
+    }
+
+    private static long retryAfter(long waitNanos) {
+        return waitNanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
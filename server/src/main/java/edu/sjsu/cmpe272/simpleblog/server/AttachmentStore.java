@@ -0,0 +1,65 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed attachment blobs on local disk. A blob lives at
+ * {@code <root>/<first two hex chars>/<sha-256>}, so identical uploads share one file.
+ */
+@Component
+public class AttachmentStore {
+    private final Path root;
+
+    public AttachmentStore(@Value("${microblog.data-dir}/blobs") Path root) {
+        this.root = root;
+    }
+
+    public String store(byte[] content) {
+        String hash = sha256(content);
+        Path target = path(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(tmp, content);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another request stored the same content first.
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hash;
+    }
+
+    public Path path(String hash) {
+        if (hash == null || !hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("invalid attachment hash");
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Counterpart of Base64BinarySerializer: accepts either a base64 string or a native byte
+ * string and always yields the base64 form the rest of the server works with.
+ */
+public class Base64BinaryDeserializer extends StdDeserializer<String> {
+
+    public Base64BinaryDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            return Base64.getEncoder().encodeToString(p.getBinaryValue());
+        }
+        return p.getValueAsString();
+    }
+}
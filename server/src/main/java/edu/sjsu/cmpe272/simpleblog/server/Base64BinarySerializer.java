@@ -0,0 +1,36 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Writes a base64 string field as raw bytes on formats with a native byte string type (CBOR,
+ * Smile) and unchanged as text on JSON or when the stored value is not valid base64.
+ */
+public class Base64BinarySerializer extends StdSerializer<String> {
+
+    public Base64BinarySerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            byte[] bytes;
+            try {
+                bytes = Base64.getDecoder().decode(value);
+            } catch (IllegalArgumentException e) {
+                // A stored value that is not base64 still goes out, as text, rather than failing the page.
+                gen.writeString(value);
+                return;
+            }
+            gen.writeBinary(bytes);
+        } else {
+            gen.writeString(value);
+        }
+    }
+}
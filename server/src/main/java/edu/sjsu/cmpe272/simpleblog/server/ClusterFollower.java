@@ -0,0 +1,283 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A follower node. It ingests posts into its own id range like any node, then three loops keep
+ * it in step with the leader: the push loop appends this node's posts to the leader's log, the
+ * tail loop long-polls the leader for every other range and replays them locally (so lists,
+ * search and the live feed are served from local state), and the user sync copies the
+ * leader's users. Creates are acknowledged once durable here and reach the leader shortly after.
+ */
+@Component
+@ConditionalOnProperty(name = "microblog.cluster.role", havingValue = "follower")
+public class ClusterFollower {
+    private static final Logger log = LoggerFactory.getLogger(ClusterFollower.class);
+    private static final int TAIL_BATCH = 500;
+    private static final int PUSH_BATCH = 100;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private MicrobloggerService microbloggerService;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private PostFanout postFanout;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${microblog.cluster.leader-url}")
+    private String leaderUrl;
+
+    @Value("${microblog.cluster.token:}")
+    private String token;
+
+    @Value("${microblog.cluster.node-id}")
+    private int nodeId;
+
+    @Value("${microblog.cluster.max-nodes:16}")
+    private int maxNodes;
+
+    @Value("${microblog.cluster.user-sync-seconds:10}")
+    private int userSyncSeconds;
+
+    @Value("${microblog.storage:jpa}")
+    private String storage;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ScheduledExecutorService userSync = Executors.newSingleThreadScheduledExecutor();
+    private volatile boolean running = true;
+    private Thread tail;
+    private Thread push;
+
+    @PostConstruct
+    void start() {
+        if (!"jpa".equals(storage)) {
+            throw new IllegalStateException("cluster mode needs microblog.storage=jpa");
+        }
+        if (token.isBlank()) {
+            throw new IllegalStateException("cluster mode needs microblog.cluster.token");
+        }
+        if (nodeId <= 0 || nodeId >= maxNodes) {
+            throw new IllegalStateException("microblog.cluster.node-id must be between 1 and " + (maxNodes - 1));
+        }
+        microbloggerService.setRemoteLookup(this::fetchPublicKey);
+        tail = Thread.ofPlatform().name("cluster-tail").daemon().start(this::tailLoop);
+        push = Thread.ofPlatform().name("cluster-push").daemon().start(this::pushLoop);
+        userSync.scheduleWithFixedDelay(this::syncUsers, 0, userSyncSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        tail.interrupt();
+        push.interrupt();
+        userSync.shutdownNow();
+    }
+
+    /** Users are owned by the leader; register there first, then locally so this node can verify at once. */
+    public void createUser(String username, String publicKey) throws IOException, InterruptedException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("user", username, "publicKey", publicKey));
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/user/create"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)));
+        if (response.statusCode() != 200) {
+            throw new IOException("leader returned " + response.statusCode());
+        }
+        microbloggerService.createUser(username, publicKey);
+    }
+
+    private void tailLoop() {
+        long[] watermarks = new long[maxNodes];
+        for (int node = 0; node < maxNodes; node++) {
+            watermarks[node] = ReplicationController.highWater(messageStore, node);
+        }
+        while (running) {
+            try {
+                StringJoiner ranges = new StringJoiner(",");
+                for (int node = 0; node < maxNodes; node++) {
+                    if (node != nodeId) {
+                        ranges.add(node + ":" + watermarks[node]);
+                    }
+                }
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl
+                        + "/replication/messages?limit=" + TAIL_BATCH + "&wait=20&ranges=" + URLEncoder.encode(ranges.toString(), StandardCharsets.UTF_8)))
+                        .timeout(Duration.ofSeconds(40))
+                        .GET());
+                if (response.statusCode() != 200) {
+                    throw new IOException("leader returned " + response.statusCode());
+                }
+                List<MicroblogPost> posts = objectMapper.readValue(response.body(), new TypeReference<List<MicroblogPost>>() {});
+                for (MicroblogPost post : posts) {
+                    fetchAttachment(post);
+                }
+                messageStore.replicate(posts).forEach(postFanout::saved);
+                for (MicroblogPost post : posts) {
+                    int node = MessageIdAllocator.nodeOf(post.getMessageId());
+                    watermarks[node] = Math.max(watermarks[node], post.getMessageId());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Tailing the leader failed, retrying: {}", e.toString());
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void pushLoop() {
+        long rangeEnd = MessageIdAllocator.rangeStart(nodeId + 1);
+        long pushed = -1;
+        while (running) {
+            try {
+                if (pushed < 0) {
+                    pushed = leaderWatermark();
+                }
+                long seen = postFanout.version();
+                List<MicroblogPost> pending = messageStore.findBetween(pushed, rangeEnd, PUSH_BATCH);
+                if (pending.isEmpty()) {
+                    postFanout.awaitChange(seen, TimeUnit.SECONDS.toMillis(5));
+                    continue;
+                }
+                List<Map<String, Object>> body = new ArrayList<>(pending.size());
+                for (MicroblogPost post : pending) {
+                    body.add(withAttachment(post));
+                }
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/replication/append"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))));
+                if (response.statusCode() != 200) {
+                    throw new IOException("leader returned " + response.statusCode());
+                }
+                List<?> rejected = (List<?>) objectMapper.readValue(response.body(), Map.class).get("rejected");
+                if (rejected != null && !rejected.isEmpty()) {
+                    log.warn("Leader rejected posts {} as unverifiable; skipping them", rejected);
+                }
+                pushed = pending.get(pending.size() - 1).getMessageId();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Pushing to the leader failed, retrying: {}", e.toString());
+                pushed = -1;
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void syncUsers() {
+        try {
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/replication/users")).GET());
+            if (response.statusCode() != 200) {
+                throw new IOException("leader returned " + response.statusCode());
+            }
+            List<Map<String, String>> users = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, String>>>() {});
+            for (Map<String, String> user : users) {
+                if (!user.get("publicKey").equals(microbloggerService.getPublicKeys().get(user.get("user")))) {
+                    microbloggerService.createUser(user.get("user"), user.get("publicKey"));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("User sync from the leader failed: {}", e.toString());
+        }
+    }
+
+    private String fetchPublicKey(String username) {
+        try {
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/user/"
+                    + URLEncoder.encode(username, StandardCharsets.UTF_8) + "/public-key")).GET());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            return (String) objectMapper.readValue(response.body(), Map.class).get("public-key");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long leaderWatermark() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/replication/watermark?node=" + nodeId)).GET());
+        if (response.statusCode() != 200) {
+            throw new IOException("leader returned " + response.statusCode());
+        }
+        return ((Number) objectMapper.readValue(response.body(), Map.class).get("after")).longValue();
+    }
+
+    private void fetchAttachment(MicroblogPost post) throws IOException, InterruptedException {
+        String hash = post.getAttachmentHash();
+        if (hash == null || Files.exists(attachmentStore.path(hash))) {
+            return;
+        }
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(leaderUrl + "/messages/" + post.getMessageId() + "/attachment")).GET());
+        if (response.statusCode() != 200 || !hash.equals(attachmentStore.store(response.body()))) {
+            throw new IOException("could not copy attachment " + hash);
+        }
+    }
+
+    // The leader only learns attachment bytes from the push, so they travel inline as base64.
+    private Map<String, Object> withAttachment(MicroblogPost post) throws IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> json = objectMapper.convertValue(post, Map.class);
+        if (post.getAttachmentHash() != null) {
+            json.put("attachment", Base64.getEncoder().encodeToString(Files.readAllBytes(attachmentStore.path(post.getAttachmentHash()))));
+        }
+        return json;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        request.header(ReplicationController.TOKEN_HEADER, token);
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(1000);
+            return running;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
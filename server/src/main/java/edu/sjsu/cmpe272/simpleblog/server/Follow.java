@@ -0,0 +1,44 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_follow_pair", columnNames = {"follower", "followee"}),
+        indexes = @Index(name = "idx_follow_followee", columnList = "followee"))
+public class Follow {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    // Both sides are normalized usernames, as in Microblogger.
+    @Column(nullable = false)
+    private String follower;
+
+    @Column(nullable = false)
+    private String followee;
+
+    public Follow() {}
+
+    public Follow(String follower, String followee) {
+        this.follower = follower;
+        this.followee = followee;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFollower() {
+        return follower;
+    }
+
+    public String getFollowee() {
+        return followee;
+    }
+}
@@ -0,0 +1,111 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who follows whom. The follow table is mirrored in memory in both directions, so fan-out
+ * and home reads never query it. An author with more than {@code microblog.home.fanout-limit}
+ * followers is heavy: HomeTimeline does not push their posts into follower inboxes. Instead,
+ * every user keeps the set of heavy accounts they follow, to merge in at read time.
+ * The graph is local to the node; in cluster mode follows are not replicated.
+ */
+@Service
+public class FollowGraph {
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final int fanoutLimit;
+    private final Map<String, Set<String>> followers = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> followees = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> heavyFollowees = new ConcurrentHashMap<>();
+
+    public FollowGraph(@Value("${microblog.home.fanout-limit:1000}") int fanoutLimit) {
+        this.fanoutLimit = fanoutLimit;
+    }
+
+    @PostConstruct
+    void loadFollows() {
+        for (Follow follow : followRepository.findAll()) {
+            link(follow.getFollower(), follow.getFollowee());
+        }
+    }
+
+    /** Returns false if {@code follower} already follows {@code followee}. */
+    public synchronized boolean follow(String follower, String followee) {
+        String from = MicrobloggerService.normalize(follower);
+        String to = MicrobloggerService.normalize(followee);
+        if (followees(from).contains(to)) {
+            return false;
+        }
+        followRepository.save(new Follow(from, to));
+        link(from, to);
+        return true;
+    }
+
+    /** Returns false if {@code follower} did not follow {@code followee}. */
+    public synchronized boolean unfollow(String follower, String followee) {
+        String from = MicrobloggerService.normalize(follower);
+        String to = MicrobloggerService.normalize(followee);
+        if (!followees(from).contains(to)) {
+            return false;
+        }
+        followRepository.deleteByFollowerAndFollowee(from, to);
+        followees.get(from).remove(to);
+        Set<String> audience = followers.get(to);
+        audience.remove(from);
+        members(heavyFollowees, from).remove(to);
+        if (audience.size() == fanoutLimit) {
+            for (String each : audience) {
+                members(heavyFollowees, each).remove(to);
+            }
+        }
+        return true;
+    }
+
+    public boolean isHeavy(String author) {
+        return followers(author).size() > fanoutLimit;
+    }
+
+    public Set<String> followers(String user) {
+        return view(followers, user);
+    }
+
+    public Set<String> followees(String user) {
+        return view(followees, user);
+    }
+
+    /** The heavy accounts {@code user} follows, kept up to date as authors cross the limit. */
+    public Set<String> heavyFollowees(String user) {
+        return view(heavyFollowees, user);
+    }
+
+    private void link(String from, String to) {
+        members(followees, from).add(to);
+        Set<String> audience = members(followers, to);
+        audience.add(from);
+        if (audience.size() == fanoutLimit + 1) {
+            for (String each : audience) {
+                members(heavyFollowees, each).add(to);
+            }
+        } else if (audience.size() > fanoutLimit) {
+            members(heavyFollowees, from).add(to);
+        }
+    }
+
+    private static Set<String> members(Map<String, Set<String>> index, String user) {
+        return index.computeIfAbsent(user, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    private static Set<String> view(Map<String, Set<String>> index, String user) {
+        Set<String> members = index.get(MicrobloggerService.normalize(user));
+        return members == null ? Set.of() : Collections.unmodifiableSet(members);
+    }
+}
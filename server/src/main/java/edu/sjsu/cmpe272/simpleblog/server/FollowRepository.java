@@ -0,0 +1,9 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+    @Transactional
+    long deleteByFollowerAndFollowee(String follower, String followee);
+}
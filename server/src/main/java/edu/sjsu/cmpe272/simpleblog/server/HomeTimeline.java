@@ -0,0 +1,311 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Home timelines: the newest posts of the accounts a user follows, plus the user's own.
+ * <p>
+ * Each user who has read a home timeline gets an inbox, a sorted {@code long[]} of at most
+ * {@code microblog.home.inbox-size} message ids. PostFanout hands every saved post to a single
+ * fan-out thread, which inserts the id into the inboxes of the author's followers. Posts by
+ * heavy authors (see FollowGraph) are not pushed. Each heavy author instead gets an outbox of
+ * their own ids, which is merged in at read time. A page costs one binary search per source,
+ * plus work in proportion to the page size. A plain follow adds nothing to the read cost.
+ * <p>
+ * Inboxes and outboxes live only in memory. One is built from the MessageStore on the first
+ * read after startup, after an unfollow, or after the fan-out queue overflows. The build runs
+ * on the fan-out thread, so it never races a push for the same user. A read waits for it at
+ * most {@code microblog.home.build-wait-ms}; past that the page is served from a private build
+ * and the queued one is kept for later reads.
+ */
+@Component
+public class HomeTimeline {
+    @Autowired
+    private FollowGraph followGraph;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    private final int inboxSize;
+    private final long buildWaitMillis;
+    private final Map<String, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final Map<String, Inbox> outboxes = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor fanout;
+
+    public HomeTimeline(@Value("${microblog.home.inbox-size:800}") int inboxSize,
+                        @Value("${microblog.home.queue-capacity:10000}") int queueCapacity,
+                        @Value("${microblog.home.build-wait-ms:1000}") long buildWaitMillis) {
+        this.inboxSize = inboxSize;
+        this.buildWaitMillis = buildWaitMillis;
+        this.fanout = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("home-fanout").daemon().factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        fanout.shutdownNow();
+    }
+
+    /** Never blocks the caller; the post reaches follower inboxes shortly after. */
+    public void deliver(MicroblogPost post) {
+        long id = post.getMessageId();
+        String author = MicrobloggerService.normalize(post.getAuthor());
+        submit(() -> {
+            insert(inboxes.get(author), id);
+            if (followGraph.isHeavy(author)) {
+                insert(outboxes.get(author), id);
+                return;
+            }
+            for (String follower : followGraph.followers(author)) {
+                insert(inboxes.get(follower), id);
+            }
+        });
+    }
+
+    public synchronized boolean follow(String username, String followee) {
+        String user = MicrobloggerService.normalize(username);
+        String author = MicrobloggerService.normalize(followee);
+        if (!followGraph.follow(user, author)) {
+            return false;
+        }
+        if (!followGraph.isHeavy(author)) {
+            submit(() -> {
+                Inbox inbox = inboxes.get(user);
+                if (inbox != null) {
+                    fill(inbox, author);
+                }
+            });
+        }
+        return true;
+    }
+
+    public synchronized boolean unfollow(String username, String followee) {
+        String user = MicrobloggerService.normalize(username);
+        String author = MicrobloggerService.normalize(followee);
+        boolean wasHeavy = followGraph.isHeavy(author);
+        if (!followGraph.unfollow(user, author)) {
+            return false;
+        }
+        boolean dropped = wasHeavy && !followGraph.isHeavy(author);
+        submit(() -> {
+            inboxes.remove(user);
+            if (dropped) {
+                // Back below the limit: pushes resume, so inboxes built without this author are stale.
+                outboxes.remove(author);
+                followGraph.followers(author).forEach(inboxes::remove);
+            }
+        });
+        return true;
+    }
+
+    /** Up to {@code limit} posts with ids below {@code before}, newest first. */
+    public List<MicroblogPost> page(String username, long before, int limit) {
+        String user = MicrobloggerService.normalize(username);
+        Set<String> heavy = followGraph.heavyFollowees(user);
+        List<Inbox.Slice> slices = new ArrayList<>(1 + heavy.size());
+        slices.add(open(inboxes, user, this::buildInbox).below(before, limit));
+        for (String author : heavy) {
+            slices.add(open(outboxes, author, this::buildOutbox).below(before, limit));
+        }
+
+        // Below the highest floor at least one source may be missing posts, so the page ends there.
+        long floor = 0;
+        for (Inbox.Slice slice : slices) {
+            floor = Math.max(floor, slice.floor());
+        }
+        List<Long> ids = new ArrayList<>(limit);
+        int[] next = new int[slices.size()];
+        long last = Long.MAX_VALUE;
+        while (ids.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < next.length; i++) {
+                long[] part = slices.get(i).ids();
+                if (next[i] < part.length && (best < 0 || part[next[i]] > slices.get(best).ids()[next[best]])) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            long id = slices.get(best).ids()[next[best]++];
+            if (id < floor) {
+                break;
+            }
+            if (id != last) {
+                ids.add(id);
+                last = id;
+            }
+        }
+
+        List<MicroblogPost> posts = new ArrayList<>(messageStore.findAllById(ids));
+        posts.sort(Comparator.comparing(MicroblogPost::getMessageId).reversed());
+        return posts;
+    }
+
+    private Inbox open(Map<String, Inbox> boxes, String key, Function<String, Inbox> build) {
+        Inbox box = boxes.get(key);
+        if (box != null) {
+            return box;
+        }
+        Future<Inbox> queued;
+        try {
+            queued = fanout.submit(() -> boxes.computeIfAbsent(key, build));
+        } catch (RejectedExecutionException e) {
+            // Fan-out is a full queue behind; serve this read from the store without keeping it.
+            return build.apply(key);
+        }
+        try {
+            return queued.get(buildWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Same, for a queue that is long but not full; the queued build still lands for later reads.
+            return build.apply(key);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Inbox buildInbox(String user) {
+        Inbox inbox = new Inbox(inboxSize);
+        fill(inbox, user);
+        for (String author : followGraph.followees(user)) {
+            if (!followGraph.isHeavy(author)) {
+                fill(inbox, author);
+            }
+        }
+        return inbox;
+    }
+
+    private Inbox buildOutbox(String author) {
+        Inbox outbox = new Inbox(inboxSize);
+        fill(outbox, author);
+        return outbox;
+    }
+
+    private void fill(Inbox box, String author) {
+        List<Long> ids = messageStore.findIdsByAuthorBefore(author, Long.MAX_VALUE, inboxSize);
+        for (long id : ids) {
+            box.insert(id);
+        }
+        if (ids.size() == inboxSize) {
+            box.raiseFloor(ids.get(ids.size() - 1));
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            fanout.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Pushes are being lost; drop everything and let the next reads rebuild from the store.
+            inboxes.clear();
+            outboxes.clear();
+        }
+    }
+
+    private static void insert(Inbox box, long id) {
+        if (box != null) {
+            box.insert(id);
+        }
+    }
+
+    /**
+     * Message ids in ascending order, capped at {@code capacity} by dropping the oldest. The live
+     * range is {@code [start, end)} of a buffer that is compacted once a third of it has been
+     * trimmed, and doubled otherwise, so appending the newest id (the usual case) is amortized O(1).
+     */
+    static final class Inbox {
+        record Slice(long[] ids, long floor) {}
+
+        private final int capacity;
+        private long[] ids = new long[16];
+        private int start;
+        private int end;
+        // Every id at or above the floor is held; ids below it may be missing. Zero: nothing is missing.
+        private long floor;
+
+        Inbox(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void insert(long id) {
+            if (id < floor) {
+                return;
+            }
+            int pos = search(id);
+            if (pos < end && ids[pos] == id) {
+                return;
+            }
+            if (end == ids.length) {
+                if (start > 0 && start >= (end - start) / 2) {
+                    System.arraycopy(ids, start, ids, 0, end - start);
+                    pos -= start;
+                    end -= start;
+                    start = 0;
+                } else {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, end - pos);
+            ids[pos] = id;
+            end++;
+            if (end - start > capacity) {
+                start++;
+                floor = ids[start];
+            }
+        }
+
+        synchronized void raiseFloor(long id) {
+            floor = Math.max(floor, id);
+        }
+
+        /** Up to {@code limit} ids below {@code before}, newest first, with the current floor. */
+        synchronized Slice below(long before, int limit) {
+            int pos = search(before);
+            long[] page = new long[Math.min(limit, pos - start)];
+            for (int i = 0; i < page.length; i++) {
+                page[i] = ids[pos - 1 - i];
+            }
+            return new Slice(page, floor);
+        }
+
+        synchronized int size() {
+            return end - start;
+        }
+
+        // Index of the first id at or above the bound within the live range.
+        private int search(long bound) {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[mid] < bound) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
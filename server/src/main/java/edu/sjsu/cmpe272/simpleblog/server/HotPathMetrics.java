@@ -0,0 +1,65 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-stage latency timers for the create and list paths, published as p50/p99/p999 plus
+ * Prometheus histogram buckets under {@code microblog_stage_seconds{stage=...}}.
+ */
+@Component
+public class HotPathMetrics {
+    final Timer jsonBind;
+    final Timer keyLookup;
+    final Timer verify;
+    final Timer persist;
+    final Timer listQuery;
+    final Timer serialize;
+    final Counter rejectedSignatures;
+    final Counter unknownAuthors;
+    final Counter queueFull;
+    final Counter ingestTimeouts;
+    final Counter ingestFailures;
+    final Counter rateLimited;
+    final Counter overloaded;
+
+    public HotPathMetrics(MeterRegistry registry) {
+        jsonBind = stage(registry, "json_bind");
+        keyLookup = stage(registry, "key_lookup");
+        verify = stage(registry, "verify");
+        persist = stage(registry, "persist");
+        listQuery = stage(registry, "list_query");
+        serialize = stage(registry, "serialize");
+        rejectedSignatures = Counter.builder("microblog.create.rejected")
+                .tag("reason", "bad_signature")
+                .register(registry);
+        unknownAuthors = Counter.builder("microblog.create.rejected")
+                .tag("reason", "unknown_author")
+                .register(registry);
+        queueFull = Counter.builder("microblog.create.rejected")
+                .tag("reason", "queue_full")
+                .register(registry);
+        ingestTimeouts = Counter.builder("microblog.create.rejected")
+                .tag("reason", "ingest_timeout")
+                .register(registry);
+        ingestFailures = Counter.builder("microblog.create.rejected")
+                .tag("reason", "ingest_failed")
+                .register(registry);
+        rateLimited = Counter.builder("microblog.create.rejected")
+                .tag("reason", "rate_limited")
+                .register(registry);
+        overloaded = Counter.builder("microblog.create.rejected")
+                .tag("reason", "overloaded")
+                .register(registry);
+    }
+
+    private static Timer stage(MeterRegistry registry, String stage) {
+        return Timer.builder("microblog.stage")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind path for /messages/create. Request threads push verified posts onto a bounded,
+ * lock-free queue and wait on a future; one writer thread drains whatever has accumulated
+ * into a single {@link MessageStore#saveAll} transaction and completes the futures only once
+ * that commit returns, so many concurrent creates share one commit without weakening
+ * durability. When the queue is full or closed {@link #submit} refuses instead of growing, and
+ * a failed commit, even one that throws an Error, fails its futures without stopping the writer.
+ */
+@Component
+public class IngestQueue {
+    private record Pending(MicroblogPost post, CompletableFuture<MicroblogPost> saved) {}
+
+    private final MessageStore messageStore;
+    private final HotPathMetrics metrics;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxBatch;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public IngestQueue(MessageStore messageStore, HotPathMetrics metrics,
+                       @Value("${microblog.ingest.write-behind:false}") boolean writeBehind,
+                       @Value("${microblog.cluster.role:standalone}") String clusterRole,
+                       @Value("${microblog.ingest.queue-capacity:10000}") int capacity,
+                       @Value("${microblog.ingest.max-batch:256}") int maxBatch) {
+        this.messageStore = messageStore;
+        this.metrics = metrics;
+        // Cluster nodes always ingest through the single writer: followers tail each id range by
+        // its high-water mark, which is only safe if the range commits in id order.
+        this.enabled = writeBehind || !"standalone".equals(clusterRole);
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::drain, "ingest-writer");
+        writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Queues a verified post; returns null when the queue is full or closed and the caller should back off. */
+    public CompletableFuture<MicroblogPost> submit(MicroblogPost post) {
+        if (!running) {
+            return null;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            metrics.queueFull.increment();
+            return null;
+        }
+        Pending pending = new Pending(post, new CompletableFuture<>());
+        queue.add(pending);
+        LockSupport.unpark(writer);
+        return pending.saved();
+    }
+
+    public int depth() {
+        return size.get();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever raced past the running check, or outlived the writer, is failed rather than left waiting.
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.saved().completeExceptionally(new IllegalStateException("ingest queue closed"));
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            Pending next;
+            while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            size.addAndGet(-batch.size());
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<MicroblogPost> posts = new ArrayList<>(batch.size());
+        batch.forEach(pending -> posts.add(pending.post()));
+        try {
+            List<MicroblogPost> saved = metrics.persist.record(() -> messageStore.saveAll(posts));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).saved().complete(saved.get(i));
+            }
+        } catch (Throwable e) {
+            batch.forEach(pending -> pending.saved().completeExceptionally(e));
+        }
+    }
+}
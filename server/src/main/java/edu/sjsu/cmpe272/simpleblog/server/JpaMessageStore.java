@@ -0,0 +1,142 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "microblog.storage", havingValue = "jpa", matchIfMissing = true)
+public class JpaMessageStore implements MessageStore {
+    @Autowired
+    private MicroblogDataRepository microblogDataRepository;
+
+    // Open bounds for the postedAt range; both fit H2's timestamp type.
+    private static final Instant EARLIEST = Instant.parse("0001-01-01T00:00:00Z");
+    private static final Instant LATEST = Instant.parse("9999-12-31T23:59:59Z");
+    private static final int BACKFILL_PAGE = 500;
+
+    @Autowired
+    private MessageIdGenerator idGenerator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Columns derived on insert are filled in for rows stored before they existed. postedAt is
+    // parsed in Java like on insert, a page of rows per transaction.
+    @PostConstruct
+    void backfill() {
+        microblogDataRepository.backfillAuthorKeys();
+        long after = 0;
+        List<Object[]> rows;
+        do {
+            rows = microblogDataRepository.findUndatedAfter(after, PageRequest.of(0, BACKFILL_PAGE));
+            List<Object[]> page = rows;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Object[] row : page) {
+                    Instant postedAt = MicroblogPost.parseDate((String) row[1]);
+                    if (postedAt != null) {
+                        microblogDataRepository.setPostedAt((Long) row[0], postedAt);
+                    }
+                }
+            });
+            if (!rows.isEmpty()) {
+                after = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == BACKFILL_PAGE);
+    }
+
+    // Ids are assigned here rather than by Hibernate, so persist() never needs a merge or a
+    // round-trip to learn the id.
+    @Override
+    @Transactional
+    public MicroblogPost save(MicroblogPost post) {
+        post.setMessageId(idGenerator.next());
+        entityManager.persist(post);
+        return post;
+    }
+
+    @Override
+    @Transactional
+    public List<MicroblogPost> saveAll(List<MicroblogPost> posts) {
+        // One transaction; with ids assigned up front Hibernate batches the inserts.
+        for (MicroblogPost post : posts) {
+            post.setMessageId(idGenerator.next());
+            entityManager.persist(post);
+        }
+        return posts;
+    }
+
+    @Override
+    public Optional<MicroblogPost> findById(long messageId) {
+        return microblogDataRepository.findById(messageId);
+    }
+
+    @Override
+    public List<MicroblogPost> findAllById(List<Long> messageIds) {
+        return microblogDataRepository.findAllById(messageIds);
+    }
+
+    @Override
+    public List<MicroblogPost> findBefore(long before, int limit) {
+        return microblogDataRepository.findByMessageIdLessThanOrderByMessageIdDesc(before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<MicroblogPost> findAfter(long after, int limit) {
+        return microblogDataRepository.findByMessageIdGreaterThanOrderByMessageIdAsc(after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<MicroblogPost> findBetween(long after, long before, int limit) {
+        return microblogDataRepository.findByMessageIdGreaterThanAndMessageIdLessThanOrderByMessageIdAsc(after, before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public boolean supportsTimeFilters() {
+        return true;
+    }
+
+    @Override
+    public List<MicroblogPost> findPostedBetween(Instant since, Instant until, long before, int limit) {
+        return microblogDataRepository.findByPostedAtGreaterThanEqualAndPostedAtLessThanAndMessageIdLessThanOrderByMessageIdDesc(
+                since == null ? EARLIEST : since, until == null ? LATEST : until, before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<MicroblogPost> findByAuthorBefore(String author, long before, int limit) {
+        return microblogDataRepository.findByAuthorKeyAndMessageIdLessThanOrderByMessageIdDesc(
+                MicrobloggerService.normalize(author), before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findIdsByAuthorBefore(String author, long before, int limit) {
+        return microblogDataRepository.findIdsByAuthorKeyBefore(MicrobloggerService.normalize(author), before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional
+    public List<MicroblogPost> replicate(List<MicroblogPost> posts) {
+        List<MicroblogPost> stored = new ArrayList<>(posts.size());
+        for (MicroblogPost post : posts) {
+            if (entityManager.find(MicroblogPost.class, post.getMessageId()) == null) {
+                entityManager.persist(post);
+                stored.add(post);
+            }
+        }
+        return stored;
+    }
+}
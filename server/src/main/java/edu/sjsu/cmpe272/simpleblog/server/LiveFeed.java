@@ -0,0 +1,214 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fan-out of newly saved posts to Server-Sent Events subscribers. Saves hand posts to a single
+ * publisher thread, which serializes each post once and offers it to every subscriber's bounded
+ * buffer. A subscriber whose buffer is full, or who would have received a post dropped because
+ * the publisher fell behind, is disconnected and can resume with Last-Event-ID. Posts reach
+ * the feed in commit order, which is not always id order, so live events are never filtered by
+ * id; only posts already sent by the replay are skipped.
+ * Sockets are written from short-lived virtual threads, so an idle subscriber holds no thread.
+ */
+@Component
+public class LiveFeed {
+    private static final Event HEARTBEAT = new Event(-1, null, null);
+
+    private record Event(long id, String author, String json) {}
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final String author;
+        final BlockingQueue<Event> buffer;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Ids sent by the replay; a live copy of one of them is skipped once.
+        final Set<Long> replayed = ConcurrentHashMap.newKeySet();
+        volatile boolean replaying = true;
+
+        Subscriber(SseEmitter emitter, String author, int bufferSize) {
+            this.emitter = emitter;
+            this.author = author;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean wants(Event event) {
+            return wants(event.author());
+        }
+
+        boolean wants(String postAuthor) {
+            return postAuthor == null || author == null || author.equalsIgnoreCase(postAuthor);
+        }
+    }
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${microblog.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${microblog.stream.max-replay:1000}")
+    private int maxReplay;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<MicroblogPost> published = new ArrayBlockingQueue<>(10_000);
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+    private Thread publisher;
+
+    @PostConstruct
+    void start() {
+        publisher = Thread.ofPlatform().name("live-feed-publisher").daemon().start(this::publishLoop);
+        heartbeat.scheduleAtFixedRate(() -> fanOut(HEARTBEAT), 30, 30, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        publisher.interrupt();
+        heartbeat.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        writers.shutdownNow();
+    }
+
+    /**
+     * Never blocks the caller. If the publisher has fallen this far behind the post is dropped,
+     * and every subscriber who would have received it is disconnected so it resyncs by replay.
+     */
+    public void publish(MicroblogPost post) {
+        if (!published.offer(post)) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.wants(post.getAuthor())) {
+                    disconnect(subscriber);
+                }
+            }
+        }
+    }
+
+    public SseEmitter subscribe(String author, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, author, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // Register before replaying so nothing saved in between is lost; drain skips duplicates.
+        subscribers.add(subscriber);
+        writers.execute(() -> replay(subscriber, lastEventId));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void publishLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                MicroblogPost post = published.take();
+                try {
+                    fanOut(new Event(post.getMessageId(), post.getAuthor(), objectMapper.writeValueAsString(post)));
+                } catch (JsonProcessingException e) {
+                    // Skip the post; it is still readable through /messages/list.
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fanOut(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.wants(event)) {
+                continue;
+            }
+            if (!subscriber.buffer.offer(event)) {
+                if (event != HEARTBEAT) {
+                    disconnect(subscriber);
+                }
+                continue;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void replay(Subscriber subscriber, Long lastEventId) {
+        try {
+            if (lastEventId != null) {
+                List<MicroblogPost> missed = messageStore.findAfter(lastEventId, maxReplay);
+                for (MicroblogPost post : missed) {
+                    Event event = new Event(post.getMessageId(), post.getAuthor(), objectMapper.writeValueAsString(post));
+                    if (subscriber.wants(event)) {
+                        send(subscriber, event);
+                        subscriber.replayed.add(event.id());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            disconnect(subscriber);
+            return;
+        }
+        subscriber.replaying = false;
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.replaying && subscriber.scheduled.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Event event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                if (event == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+                } else if (!subscriber.replayed.remove(event.id())) {
+                    send(subscriber, event);
+                }
+            }
+        } catch (Exception e) {
+            disconnect(subscriber);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.buffer.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Event event) throws Exception {
+        subscriber.emitter.send(SseEmitter.event()
+                .id(Long.toString(event.id()))
+                .name("message")
+                .data(event.json(), MediaType.APPLICATION_JSON));
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.emitter.complete();
+        }
+    }
+}
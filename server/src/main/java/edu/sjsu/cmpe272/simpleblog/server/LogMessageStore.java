@@ -0,0 +1,414 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only message log made of fixed-size memory-mapped segments. Each record is
+ * {@code [int length][int crc32c][body]}; ids are assigned densely by the log, so the
+ * offset index is a plain array indexed by {@code messageId - 1}.
+ *
+ * <p>Writers append under a lock and then wait for durability outside it. The first waiter
+ * forces the mapped segment for everyone appended so far (group commit), the rest wait on
+ * its result. On startup the segments are scanned and the first record with a bad length
+ * or checksum is treated as a torn tail: it and everything after it are discarded.
+ */
+@Component
+@ConditionalOnProperty(name = "microblog.storage", havingValue = "log")
+public class LogMessageStore implements MessageStore {
+    private static final int HEADER = 8;
+    private static final int ZERO_CHUNK = 64 * 1024;
+
+    private record Segment(Path path, MappedByteBuffer buffer) {}
+
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private volatile Segment[] segments = new Segment[0];
+    private volatile long[] positions = new long[1024];
+    private volatile int count;
+    private int writePosition;
+
+    // Keyed by the normalized author, like MicroblogPost.authorKey.
+    private final ConcurrentHashMap<String, SearchIndex.Postings> authors = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private long durableId;
+    private boolean flushing;
+
+    public LogMessageStore(@Value("${microblog.data-dir}/log") Path dir,
+                           @Value("${microblog.log.segment-size:67108864}") int segmentSize,
+                           @Value("${microblog.log.fsync:true}") boolean fsync) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        recover();
+    }
+
+    @Override
+    public MicroblogPost save(MicroblogPost post) {
+        long id = append(post);
+        awaitDurable(id);
+        return post;
+    }
+
+    @Override
+    public List<MicroblogPost> saveAll(List<MicroblogPost> posts) {
+        long last = 0;
+        for (MicroblogPost post : posts) {
+            last = append(post);
+        }
+        awaitDurable(last);
+        return posts;
+    }
+
+    @Override
+    public Optional<MicroblogPost> findById(long messageId) {
+        if (messageId < 1 || messageId > count) {
+            return Optional.empty();
+        }
+        return Optional.of(read(messageId));
+    }
+
+    @Override
+    public List<MicroblogPost> findAllById(List<Long> messageIds) {
+        List<MicroblogPost> posts = new ArrayList<>(messageIds.size());
+        for (Long id : messageIds) {
+            findById(id).ifPresent(posts::add);
+        }
+        return posts;
+    }
+
+    @Override
+    public List<MicroblogPost> findBefore(long before, int limit) {
+        List<MicroblogPost> posts = new ArrayList<>(limit);
+        for (long id = Math.min(before - 1, count); id >= 1 && posts.size() < limit; id--) {
+            posts.add(read(id));
+        }
+        return posts;
+    }
+
+    @Override
+    public List<MicroblogPost> findAfter(long after, int limit) {
+        int last = count;
+        List<MicroblogPost> posts = new ArrayList<>(limit);
+        for (long id = Math.max(after + 1, 1); id <= last && posts.size() < limit; id++) {
+            posts.add(read(id));
+        }
+        return posts;
+    }
+
+    @Override
+    public List<MicroblogPost> findBetween(long after, long before, int limit) {
+        long last = Math.min(count, before - 1);
+        List<MicroblogPost> posts = new ArrayList<>(limit);
+        for (long id = Math.max(after + 1, 1); id <= last && posts.size() < limit; id++) {
+            posts.add(read(id));
+        }
+        return posts;
+    }
+
+    // Log ids are dense counters with no time in them, and the log keeps no date index.
+    @Override
+    public boolean supportsTimeFilters() {
+        return false;
+    }
+
+    @Override
+    public List<MicroblogPost> findPostedBetween(Instant since, Instant until, long before, int limit) {
+        throw new UnsupportedOperationException("time filters need microblog.storage=jpa");
+    }
+
+    @Override
+    public List<MicroblogPost> findByAuthorBefore(String author, long before, int limit) {
+        SearchIndex.Postings postings = authors.get(MicrobloggerService.normalize(author));
+        if (postings == null) {
+            return List.of();
+        }
+        SearchIndex.Postings.View view = postings.view();
+        int pos = Arrays.binarySearch(view.ids(), 0, view.size(), before);
+        int end = pos >= 0 ? pos : -pos - 1;
+        List<MicroblogPost> posts = new ArrayList<>(limit);
+        for (int i = end - 1; i >= 0 && posts.size() < limit; i--) {
+            posts.add(read(view.ids()[i]));
+        }
+        return posts;
+    }
+
+    @Override
+    public List<Long> findIdsByAuthorBefore(String author, long before, int limit) {
+        SearchIndex.Postings postings = authors.get(MicrobloggerService.normalize(author));
+        if (postings == null) {
+            return List.of();
+        }
+        SearchIndex.Postings.View view = postings.view();
+        int pos = Arrays.binarySearch(view.ids(), 0, view.size(), before);
+        int end = pos >= 0 ? pos : -pos - 1;
+        List<Long> ids = new ArrayList<>(Math.min(limit, end));
+        for (int i = end - 1; i >= 0 && ids.size() < limit; i--) {
+            ids.add(view.ids()[i]);
+        }
+        return ids;
+    }
+
+    // The offset index is addressed by id, so the log can only hold the ids it assigned itself.
+    @Override
+    public List<MicroblogPost> replicate(List<MicroblogPost> posts) {
+        throw new UnsupportedOperationException("the log store assigns its own ids; cluster mode needs microblog.storage=jpa");
+    }
+
+    @PreDestroy
+    public void close() {
+        Segment[] current = segments;
+        if (current.length > 0) {
+            current[current.length - 1].buffer().force();
+        }
+    }
+
+    private synchronized long append(MicroblogPost post) {
+        long id = count + 1L;
+        byte[] body = encode(id, post);
+        int length = HEADER + body.length;
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("post larger than a log segment");
+        }
+        Segment segment = segments.length == 0 ? null : segments[segments.length - 1];
+        if (segment == null || writePosition + length > segmentSize) {
+            if (segment != null) {
+                // Seal the full segment so group commits only ever need to force the last one.
+                segment.buffer().force();
+            }
+            segment = openSegment(id);
+            writePosition = 0;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        MappedByteBuffer buffer = segment.buffer();
+        buffer.put(writePosition + HEADER, body);
+        buffer.putInt(writePosition + 4, (int) crc.getValue());
+        buffer.putInt(writePosition, body.length);
+
+        index(id, segments.length - 1, writePosition, post.getAuthor());
+        writePosition += length;
+        post.setMessageId(id);
+        return id;
+    }
+
+    private void awaitDurable(long id) {
+        if (!fsync || id == 0) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (durableId < id) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                long target;
+                Segment segment;
+                synchronized (this) {
+                    target = count;
+                    segment = segments[segments.length - 1];
+                }
+                flushLock.unlock();
+                try {
+                    segment.buffer().force();
+                } finally {
+                    flushLock.lock();
+                    flushing = false;
+                    flushed.signalAll();
+                }
+                durableId = Math.max(durableId, target);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void recover() {
+        List<Path> files;
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> listing = Files.list(dir)) {
+                files = listing.filter(p -> p.getFileName().toString().startsWith("segment-")).sorted().toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = mapSegment(files.get(i));
+            appendSegment(segment);
+            MappedByteBuffer buffer = segment.buffer();
+            int pos = 0;
+            boolean torn = false;
+            while (pos + HEADER <= segmentSize) {
+                int length = buffer.getInt(pos);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || pos + HEADER + length > segmentSize) {
+                    torn = true;
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(pos + HEADER, body);
+                CRC32C crc = new CRC32C();
+                crc.update(body);
+                MicroblogPost post = (int) crc.getValue() == buffer.getInt(pos + 4) ? decode(body) : null;
+                if (post == null || post.getMessageId() != count + 1L) {
+                    torn = true;
+                    break;
+                }
+                index(post.getMessageId(), segments.length - 1, pos, post.getAuthor());
+                pos += HEADER + length;
+            }
+            writePosition = pos;
+            if (torn) {
+                zeroFrom(buffer, pos);
+                buffer.force();
+                deleteAll(files.subList(i + 1, files.size()));
+                break;
+            }
+        }
+        durableId = count;
+    }
+
+    private void index(long id, int segment, int position, String author) {
+        long[] current = positions;
+        int slot = (int) (id - 1);
+        if (slot == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[slot] = ((long) segment << 32) | position;
+        positions = current;
+        authors.computeIfAbsent(MicrobloggerService.normalize(author), a -> new SearchIndex.Postings()).add(id);
+        count = slot + 1;
+    }
+
+    private MicroblogPost read(long id) {
+        long location = positions[(int) (id - 1)];
+        MappedByteBuffer buffer = segments[(int) (location >>> 32)].buffer();
+        int position = (int) location;
+        byte[] body = new byte[buffer.getInt(position)];
+        buffer.get(position + HEADER, body);
+        return decode(body);
+    }
+
+    private Segment openSegment(long firstId) {
+        Segment segment = mapSegment(dir.resolve(String.format("segment-%020d.log", firstId)));
+        appendSegment(segment);
+        return segment;
+    }
+
+    private Segment mapSegment(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendSegment(Segment segment) {
+        Segment[] current = Arrays.copyOf(segments, segments.length + 1);
+        current[current.length - 1] = segment;
+        segments = current;
+    }
+
+    private static void zeroFrom(MappedByteBuffer buffer, int from) {
+        byte[] zeros = new byte[ZERO_CHUNK];
+        for (int pos = from; pos < buffer.capacity(); pos += ZERO_CHUNK) {
+            buffer.put(pos, zeros, 0, Math.min(ZERO_CHUNK, buffer.capacity() - pos));
+        }
+    }
+
+    private static void deleteAll(List<Path> files) {
+        try {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] encode(long id, MicroblogPost post) {
+        byte[][] fields = {
+                bytes(post.getDate()), bytes(post.getAuthor()), bytes(post.getMessage()), bytes(post.getSignature()),
+                bytes(post.getAttachmentHash()), bytes(post.getAttachmentType())
+        };
+        int size = 8 + 8;
+        for (byte[] field : fields) {
+            size += 4 + (field == null ? 0 : field.length);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putLong(id);
+        out.putLong(post.getAttachmentSize() == null ? -1 : post.getAttachmentSize());
+        for (byte[] field : fields) {
+            if (field == null) {
+                out.putInt(-1);
+            } else {
+                out.putInt(field.length);
+                out.put(field);
+            }
+        }
+        return out.array();
+    }
+
+    static MicroblogPost decode(byte[] body) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(body);
+            long id = in.getLong();
+            long attachmentSize = in.getLong();
+            MicroblogPost post = new MicroblogPost(string(in), string(in), string(in), null, string(in));
+            post.setMessageId(id);
+            post.setAttachmentHash(string(in));
+            post.setAttachmentType(string(in));
+            post.setAttachmentSize(attachmentSize < 0 ? null : attachmentSize);
+            return post;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,25 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque paging cursor for the message list. The cursor wraps the exclusive upper
+ * message-id bound of the next page so clients never have to do id arithmetic.
+ */
+public class MessageCursor {
+    private static final String PREFIX = "mid:";
+
+    public static String encode(long beforeMessageId) {
+        byte[] raw = (PREFIX + beforeMessageId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static long decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!raw.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("malformed cursor");
+        }
+        return Long.parseLong(raw.substring(PREFIX.length()));
+    }
+}
@@ -0,0 +1,64 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The default {@link MessageIdGenerator}: a pooled database sequence. Ids are reserved from {@code message_id_seq} a block
+ * at a time, so only one insert in {@value #BLOCK} pays a sequence round-trip; blocks follow
+ * the same (hi - BLOCK, hi] layout Hibernate's pooled optimizer used, so existing databases
+ * continue where they left off.
+ *
+ * <p>In cluster mode every node prefixes its ids with its node id above bit {@value #NODE_SHIFT}.
+ * Nodes therefore ingest into disjoint id ranges without coordinating, and each range is
+ * written in increasing order by a single node.
+ *
+ * <p>Lists order by id, so in a cluster "newest first" holds within each node's range only:
+ * every post ingested by node 1 sorts above every post ingested by node 0, whatever their
+ * times. Clients that need a global time order filter or sort on the signed date.
+ */
+@Component
+@ConditionalOnProperty(name = "microblog.ids", havingValue = "sequence", matchIfMissing = true)
+public class MessageIdAllocator implements MessageIdGenerator {
+    static final int BLOCK = 50;
+    static final int NODE_SHIFT = 40;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final long nodeBase;
+    private long next;
+    private long blockEnd = -1;
+
+    public MessageIdAllocator(@Value("${microblog.cluster.node-id:0}") int nodeId) {
+        this.nodeBase = rangeStart(nodeId);
+    }
+
+    @PostConstruct
+    void createSequence() {
+        jdbcTemplate.execute("create sequence if not exists message_id_seq start with 1 increment by " + BLOCK);
+    }
+
+    @Override
+    public synchronized long next() {
+        if (next > blockEnd) {
+            long hi = jdbcTemplate.queryForObject("select next value for message_id_seq", Long.class);
+            next = Math.max(1, hi - BLOCK + 1);
+            blockEnd = hi;
+        }
+        return nodeBase + next++;
+    }
+
+    /** First id of a node's range; the range ends where the next node's starts. */
+    static long rangeStart(int nodeId) {
+        return (long) nodeId << NODE_SHIFT;
+    }
+
+    static int nodeOf(long messageId) {
+        return (int) (messageId >>> NODE_SHIFT);
+    }
+}
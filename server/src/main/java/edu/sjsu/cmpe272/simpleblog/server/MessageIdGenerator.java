@@ -0,0 +1,10 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+/**
+ * Assigns message ids for the JPA store, selected with {@code microblog.ids}: {@code sequence}
+ * (default, MessageIdAllocator) or {@code time} (TimeOrderedIdGenerator). Ids must increase
+ * in the order they are handed out; the timeline cache and list cursors rely on it.
+ */
+public interface MessageIdGenerator {
+    long next();
+}
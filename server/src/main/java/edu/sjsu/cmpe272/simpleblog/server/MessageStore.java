@@ -0,0 +1,51 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage engine for posts, selected with {@code microblog.storage}: {@code jpa} (default,
+ * H2 through MicroblogDataRepository) or {@code log} (LogMessageStore). Posts are immutable
+ * once saved, so the engine only needs appends and id-ordered reads.
+ */
+public interface MessageStore {
+    MicroblogPost save(MicroblogPost post);
+
+    List<MicroblogPost> saveAll(List<MicroblogPost> posts);
+
+    Optional<MicroblogPost> findById(long messageId);
+
+    List<MicroblogPost> findAllById(List<Long> messageIds);
+
+    /** Posts with ids below {@code before}, newest first. */
+    List<MicroblogPost> findBefore(long before, int limit);
+
+    /** Posts with ids above {@code after}, oldest first. */
+    List<MicroblogPost> findAfter(long after, int limit);
+
+    /** Posts with ids strictly between {@code after} and {@code before}, oldest first. */
+    List<MicroblogPost> findBetween(long after, long before, int limit);
+
+    /** Whether {@link #findPostedBetween} is available; the list answers 400 to time filters otherwise. */
+    boolean supportsTimeFilters();
+
+    /**
+     * Posts whose signed date (postedAt) is from {@code since} (inclusive) to {@code until}
+     * (exclusive), with ids below {@code before}, newest first; a null bound is open. Only
+     * called when {@link #supportsTimeFilters()} is true.
+     */
+    List<MicroblogPost> findPostedBetween(Instant since, Instant until, long before, int limit);
+
+    /** One author's posts with ids below {@code before}, newest first. */
+    List<MicroblogPost> findByAuthorBefore(String author, long before, int limit);
+
+    /** Ids of one author's posts below {@code before}, newest first, without loading the posts. */
+    List<Long> findIdsByAuthorBefore(String author, long before, int limit);
+
+    /**
+     * Stores posts whose ids were assigned by another cluster node, skipping ids already
+     * present, and returns the ones actually stored.
+     */
+    List<MicroblogPost> replicate(List<MicroblogPost> posts);
+}
@@ -1,54 +1,573 @@
 package edu.sjsu.cmpe272.simpleblog.server;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
 
 @RestController
 @RequestMapping("/messages")
 public class MicroblogController {
+    // Types no browser runs as markup or script; anything else, HTML and SVG included, is served as octet-stream.
+    private static final Set<String> SAFE_ATTACHMENT_TYPES = Set.of(
+            "image/png", "image/jpeg", "image/gif", "image/webp", "text/plain", "application/pdf",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private MicrobloggerService microbloggerService;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private TimelineCache timelineCache;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private LiveFeed liveFeed;
+
+    @Autowired
+    private PostFanout postFanout;
+
+    @Autowired
+    private HotPathMetrics metrics;
+
+    @Autowired
+    private IngestQueue ingestQueue;
 
     @Autowired
-    private MicroblogDataRepository microblogDataRepository;
+    private AdmissionControl admission;
+
+    @Value("${microblog.batch.max-size:500}")
+    private int maxBatchSize;
+
+    // Upper bound on waiting for the write-behind commit; past it the request gets a 503.
+    @Value("${microblog.ingest.wait-ms:10000}")
+    private long ingestWaitMillis;
 
     @PostMapping("/create")
-    public ResponseEntity<?> createMessage(@RequestBody MicroblogPost message) throws Exception {
-    PublicKey publicKey = MicrobloggerService.getPublicKeyFromString(MicrobloggerService.microbloggerPublicKeys.get(message.getAuthor()));
+    public ResponseEntity<?> createMessage(@RequestBody MicroblogPost message, HttpServletRequest request) throws Exception {
+        // The client limit is checked first so a flooding sender costs a CAS, not an RSA verify.
+        long retryAfter = admission.checkClient(request.getRemoteAddr(), 1);
+        if (retryAfter > 0) {
+            metrics.rateLimited.increment();
+            return tooManyRequests(retryAfter, "rate limited");
+        }
+
+        PublicKey publicKey = metrics.keyLookup.record(() -> microbloggerService.getParsedPublicKey(message.getAuthor()));
+        if (publicKey == null) {
+            metrics.unknownAuthors.increment();
+        }
 
-        if(publicKey!=null && VerifySignature.AuthenticateSignature(message,publicKey) ){
-            System.out.println("verify signature "+VerifySignature.AuthenticateSignature(message,publicKey));
-            MicroblogPost savedMessage = microblogDataRepository.save(message);
+        boolean verified = false;
+        if (publicKey != null) {
+            if (!admission.enterVerify()) {
+                metrics.overloaded.increment();
+                return tooManyRequests(1, "server busy");
+            }
+            long start = System.nanoTime();
+            try {
+                verified = metrics.verify.recordCallable(() -> VerifySignature.AuthenticateSignature(message, publicKey));
+            } finally {
+                admission.exitVerify(System.nanoTime() - start);
+            }
+        }
+
+        if (verified) {
+            // The author bucket is charged only once the signature proves who is posting, so
+            // unsigned junk sent under someone else's name cannot spend their allowance.
+            long authorRetryAfter = admission.checkAuthor(message.getAuthor(), 1);
+            if (authorRetryAfter > 0) {
+                metrics.rateLimited.increment();
+                return tooManyRequests(authorRetryAfter, "rate limited");
+            }
+            try {
+                moveAttachmentToStore(message);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.ok(Map.of("error", "invalid attachment"));
+            }
+            MicroblogPost savedMessage;
+            if (ingestQueue.isEnabled()) {
+                CompletableFuture<MicroblogPost> queued = ingestQueue.submit(message);
+                if (queued == null) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .body(Map.of("error", "ingest queue full"));
+                }
+                // Returns once the writer's group commit containing this post is durable. On timeout the
+                // post may still commit, so no Retry-After: a blind retry could store it twice.
+                try {
+                    savedMessage = queued.get(ingestWaitMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    metrics.ingestTimeouts.increment();
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "ingest timed out"));
+                } catch (ExecutionException e) {
+                    metrics.ingestFailures.increment();
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "ingest failed"));
+                }
+            } else {
+                savedMessage = metrics.persist.record(() -> messageStore.save(message));
+            }
+            postFanout.saved(savedMessage);
             return ResponseEntity.ok(Map.of("message-id", savedMessage.getMessageId()));
         }
         else{
-
+            if (publicKey != null) {
+                metrics.rejectedSignatures.increment();
+            }
             return ResponseEntity.ok(Map.of("error", "failed to create message"));
         }
 
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createMessages(@RequestBody List<MicroblogPost> messages, HttpServletRequest request) {
+        // A batch costs one client token per post, so one larger than the bucket could never be
+        // admitted; refuse it outright rather than with a Retry-After that cannot be honoured.
+        int maxSize = Math.min(maxBatchSize, admission.maxClientCost());
+        if (messages.size() > maxSize) {
+            return ResponseEntity.badRequest().body(Map.of("error", "batch larger than " + maxSize));
+        }
+        long retryAfter = admission.checkClient(request.getRemoteAddr(), messages.size());
+        if (retryAfter > 0) {
+            metrics.rateLimited.increment();
+            return tooManyRequests(retryAfter, "rate limited");
+        }
+
+        // Verification is pure CPU, so fan it out across cores before touching storage. Each post
+        // takes its own verify slot and reports its own latency, so batches weigh on the global
+        // cap and the latency average exactly like single creates.
+        boolean[] verified = new boolean[messages.size()];
+        String[] errors = new String[messages.size()];
+        IntStream.range(0, messages.size()).parallel().forEach(i -> {
+            MicroblogPost message = messages.get(i);
+            try {
+                PublicKey publicKey = metrics.keyLookup.record(() -> microbloggerService.getParsedPublicKey(message.getAuthor()));
+                if (publicKey == null) {
+                    metrics.unknownAuthors.increment();
+                    return;
+                }
+                if (!admission.enterVerify()) {
+                    metrics.overloaded.increment();
+                    errors[i] = "server busy";
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    verified[i] = metrics.verify.recordCallable(() -> VerifySignature.AuthenticateSignature(message, publicKey));
+                } finally {
+                    admission.exitVerify(System.nanoTime() - start);
+                }
+                if (!verified[i]) {
+                    metrics.rejectedSignatures.increment();
+                } else if (admission.checkAuthor(message.getAuthor(), 1) > 0) {
+                    metrics.rateLimited.increment();
+                    errors[i] = "rate limited";
+                    verified[i] = false;
+                }
+            } catch (Exception e) {
+                verified[i] = false;
+            }
+        });
+
+        List<MicroblogPost> accepted = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            if (verified[i]) {
+                MicroblogPost message = messages.get(i);
+                message.setMessageId(null);
+                try {
+                    moveAttachmentToStore(message);
+                    accepted.add(message);
+                } catch (IllegalArgumentException e) {
+                    verified[i] = false;
+                }
+            }
+        }
+        if (ingestQueue.isEnabled()) {
+            // Cluster nodes write through the single ingest writer so each id range commits in order.
+            List<CompletableFuture<MicroblogPost>> queued = new ArrayList<>(messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                queued.add(verified[i] ? ingestQueue.submit(messages.get(i)) : null);
+                verified[i] = queued.get(i) != null;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ingestWaitMillis);
+            for (int i = 0; i < queued.size(); i++) {
+                if (queued.get(i) == null) {
+                    continue;
+                }
+                try {
+                    postFanout.saved(queued.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    metrics.ingestTimeouts.increment();
+                    verified[i] = false;
+                } catch (ExecutionException e) {
+                    metrics.ingestFailures.increment();
+                    verified[i] = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    verified[i] = false;
+                }
+            }
+        } else {
+            metrics.persist.record(() -> messageStore.saveAll(accepted));
+            accepted.forEach(postFanout::saved);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            if (verified[i]) {
+                results.add(Map.of("message-id", messages.get(i).getMessageId()));
+            } else {
+                results.add(Map.of("error", errors[i] != null ? errors[i] : "failed to create message"));
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/search")
+    public ResponseEntity<?> searchMessages(@RequestBody Map<String, Object> params) {
+        String query = (String) params.get("query");
+        Integer limit = (Integer) params.getOrDefault("limit", 10);
+        String cursor = (String) params.get("cursor");
+        if (query == null || query.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "query is required"));
+        }
+        if (limit < 1 || limit > 20) {
+            return ResponseEntity.badRequest().body("Error: Limit value out of range 20");
+        }
+        long before = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                before = MessageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "invalid cursor"));
+            }
+        }
+
+        long[] ids = searchIndex.search(query, before, limit);
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        List<MicroblogPost> messages = new ArrayList<>(messageStore.findAllById(idList));
+        messages.sort(Comparator.comparing(MicroblogPost::getMessageId).reversed());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (ids.length == limit) {
+            response.header(NEXT_CURSOR_HEADER, MessageCursor.encode(ids[ids.length - 1]));
+        }
+        return response.body(messages);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(@RequestParam(required = false) String author,
+                                     @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return liveFeed.subscribe(author, lastEventId);
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<?> cacheStats() {
+        return ResponseEntity.ok(timelineCache.stats());
+    }
+
+    @GetMapping("/{id}/attachment")
+    public void getAttachment(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MicroblogPost post = messageStore.findById(id).orElse(null);
+        if (post == null || post.getAttachmentHash() == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path blob = attachmentStore.path(post.getAttachmentHash());
+        String etag = "\"" + post.getAttachmentHash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        // The type is the uploader's claim and not signed, so it is never trusted to render on this origin.
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = Files.size(blob);
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(attachmentType(post.getAttachmentType()));
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Let Tomcat hand the file region to the kernel with sendfile(2).
+            request.setAttribute(SENDFILE_FILENAME, blob.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
     @PostMapping("/list")
-    public ResponseEntity<?> listMessages(@RequestBody Map<String, Object> params) {
+    public ResponseEntity<?> listMessages(@RequestBody Map<String, Object> params,
+                                          @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Integer limit = (Integer) params.getOrDefault("limit", 10);
-        Integer next = (Integer) params.getOrDefault("next",-1);
-        Integer starting_id = (Integer) params.getOrDefault("starting_id",0);
-        if (limit > 20) {
+        long next = ((Number) params.getOrDefault("next", -1)).longValue();
+        String cursor = (String) params.get("cursor");
+        return listPage(limit, next, cursor, (String) params.get("since"), (String) params.get("until"), accept, ifNoneMatch);
+    }
+
+    // Same page as POST /list, for clients and caches that revalidate with conditional GETs.
+    @GetMapping("/list")
+    public ResponseEntity<?> listMessagesGet(@RequestParam(defaultValue = "10") int limit,
+                                             @RequestParam(defaultValue = "-1") long next,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) String since,
+                                             @RequestParam(required = false) String until,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                             @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listPage(limit, next, cursor, since, until, accept, ifNoneMatch);
+    }
+
+    private ResponseEntity<?> listPage(int limit, long next, String cursor, String since, String until,
+                                       String accept, String ifNoneMatch) {
+        if (limit < 1 || limit > 20) {
             return ResponseEntity.badRequest().body("Error: Limit value out of range 20");
         }
-        List<MicroblogPost> messages= microblogDataRepository.findAllByOrderByMessageIdAsc();
-        if(next==-1){
-            messages = microblogDataRepository.findAllByOrderByMessageIdDesc();
+        // since/until are ISO-8601 times with an offset; until is exclusive.
+        Instant sinceTime = MicroblogPost.parseDate(since);
+        Instant untilTime = MicroblogPost.parseDate(until);
+        if ((since != null && sinceTime == null) || (until != null && untilTime == null)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "invalid since/until"));
+        }
+        boolean filtered = sinceTime != null || untilTime != null;
+        if (filtered && !messageStore.supportsTimeFilters()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "time filters need microblog.storage=jpa"));
+        }
+
+        long before;
+        if (cursor != null) {
+            try {
+                before = MessageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "invalid cursor"));
+            }
+        } else {
+            // "next" is the first message-id to return, so the exclusive bound is one above it.
+            before = next == -1 ? Long.MAX_VALUE : next + 1;
+        }
+
+        // Any save can change any page (ids do not arrive in order), so the ETag carries the
+        // fan-out version, bumped on every save, and is checked without querying the store.
+        boolean json;
+        try {
+            json = acceptsJson(accept);
+        } catch (InvalidMediaTypeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        String etag = "\"" + (before == Long.MAX_VALUE ? "top" : before) + "-" + limit + "-"
+                + postFanout.epoch() + "." + postFanout.version() + (filtered ? "-" + since + "-" + until : "") + (json ? "" : "-cbor") + "\"";
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        Timer.Sample listSample = Timer.start();
+        // The cache holds JSON fragments, so only JSON-accepting clients can be served from it.
+        TimelineCache.Page page = json && !filtered ? timelineCache.page(before, limit) : null;
+        if (page != null) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag).varyBy(HttpHeaders.ACCEPT);
+            if (page.count() == limit) {
+                response.header(NEXT_CURSOR_HEADER, MessageCursor.encode(page.lastId()));
+            }
+            listSample.stop(metrics.listQuery);
+            return response.body(page.json());
+        }
+
+        List<MicroblogPost> messages = filtered ? messageStore.findPostedBetween(sinceTime, untilTime, before, limit)
+                : messageStore.findBefore(before, limit);
+        listSample.stop(metrics.listQuery);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+        if (messages.size() == limit) {
+            long lastId = messages.get(messages.size() - 1).getMessageId();
+            response.header(NEXT_CURSOR_HEADER, MessageCursor.encode(lastId));
+        }
+        return response.body(messages);
+    }
+
+    private static ResponseEntity<?> tooManyRequests(long retryAfterSeconds, String error) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(Map.of("error", error));
+    }
+
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mirrors the converter choice: the most preferred type that JSON or CBOR can satisfy wins,
+    // and a wildcard goes to JSON, the first converter. Throws on a malformed header.
+    @SuppressWarnings("deprecation")
+    static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        MediaType.sortBySpecificityAndQuality(types);
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void moveAttachmentToStore(MicroblogPost message) {
+        String attachment = message.getAttachment();
+        if (attachment == null || attachment.isEmpty()) {
+            message.setAttachmentHash(null);
+            message.setAttachmentSize(null);
+            message.setAttachmentType(null);
+            return;
+        }
+        byte[] content = Base64.getDecoder().decode(attachment);
+        message.setAttachmentHash(attachmentStore.store(content));
+        message.setAttachmentSize((long) content.length);
+        message.setAttachmentType(attachmentType(message.getAttachmentType()));
+        message.setAttachment(null);
+    }
+
+    /** The claimed type if it is on the allowlist of inert types, without parameters; octet-stream otherwise. */
+    static String attachmentType(String claimed) {
+        if (claimed == null) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(claimed);
+            String bare = type.getType() + "/" + type.getSubtype();
+            return SAFE_ATTACHMENT_TYPES.contains(bare) ? bare : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
         }
+    }
 
-        if (messages.size() > limit) {
-            messages = messages.subList(starting_id, limit);
+    /**
+     * Parses a single "bytes=" range. Returns the inclusive bounds, an empty array when the
+     * header should be ignored (multiple or malformed ranges), or null when unsatisfiable.
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? size - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
         }
-        return ResponseEntity.ok(messages);
     }
 }
@@ -1,12 +1,48 @@
 package edu.sjsu.cmpe272.simpleblog.server;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
 import java.util.List;
 
 
 
 public interface MicroblogDataRepository extends JpaRepository<MicroblogPost, Long> {
-    List<MicroblogPost> findAllByOrderByMessageIdDesc();
-    List<MicroblogPost> findAllByOrderByMessageIdAsc();
+    // Keyset page: a primary-key range scan, newest first, bounded by the pageable size.
+    List<MicroblogPost> findByMessageIdLessThanOrderByMessageIdDesc(Long messageId, Pageable pageable);
+
+    List<MicroblogPost> findByMessageIdGreaterThanOrderByMessageIdAsc(Long messageId, Pageable pageable);
+
+    List<MicroblogPost> findByMessageIdGreaterThanAndMessageIdLessThanOrderByMessageIdAsc(Long after, Long before, Pageable pageable);
+
+    // Time filter: a range on the postedAt index declared on MicroblogPost, whatever the id scheme.
+    List<MicroblogPost> findByPostedAtGreaterThanEqualAndPostedAtLessThanAndMessageIdLessThanOrderByMessageIdDesc(
+            Instant since, Instant until, Long before, Pageable pageable);
+
+    // Served by the (authorKey, messageId) index declared on MicroblogPost.
+    List<MicroblogPost> findByAuthorKeyAndMessageIdLessThanOrderByMessageIdDesc(String authorKey, Long messageId, Pageable pageable);
+
+    // Rows stored before authorKey existed; run once at startup.
+    @Modifying
+    @Transactional
+    @Query("update MicroblogPost p set p.authorKey = lower(p.author) where p.authorKey is null")
+    int backfillAuthorKeys();
+
+    // Rows stored before postedAt existed, as (messageId, date) pairs in id order. Dates that do
+    // not parse stay null and are skipped again on the next startup.
+    @Query("select p.messageId, p.date from MicroblogPost p where p.postedAt is null and p.messageId > ?1 order by p.messageId")
+    List<Object[]> findUndatedAfter(Long messageId, Pageable pageable);
+
+    @Modifying
+    @Query("update MicroblogPost p set p.postedAt = ?2 where p.messageId = ?1")
+    int setPostedAt(Long messageId, Instant postedAt);
+
+    // Same index, ids only; home inboxes are built from these.
+    @Query("select p.messageId from MicroblogPost p where p.authorKey = ?1 and p.messageId < ?2 order by p.messageId desc")
+    List<Long> findIdsByAuthorKeyBefore(String authorKey, Long messageId, Pageable pageable);
 }
 
 
@@ -1,34 +1,74 @@
 package edu.sjsu.cmpe272.simpleblog.server;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_post_author_key_message_id", columnList = "authorKey, messageId"),
+        @Index(name = "idx_post_posted_at", columnList = "postedAt")
+})
 public class MicroblogPost {
 
+    // Assigned by the MessageStore (a MessageIdGenerator for JPA) before the insert.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long messageId;
 
     @Column(nullable = false, length = 1000)
     private String message;
 
-    @Column(nullable = true)
+    // Inline base64 upload; only used to verify the signature before the bytes move to the AttachmentStore.
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @JsonDeserialize(using = Base64BinaryDeserializer.class)
     private String attachment;
 
+    @Column(nullable = true, length = 64)
+    private String attachmentHash;
+
+    @Column(nullable = true)
+    private Long attachmentSize;
+
+    @Column(nullable = true)
+    private String attachmentType;
+
     @Column(nullable = false)
     private String date;
 
+    // The signed date string as a typed, indexed timestamp for time filters; null if it does
+    // not parse. Derived on insert (older rows are backfilled at startup by JpaMessageStore),
+    // so it is not part of the wire format.
+    @Column(nullable = true)
+    @JsonIgnore
+    private Instant postedAt;
+
     @Column(nullable = false)
     private String author;
 
-    @Column(nullable = false,length = 2048)
+    // The author as signed stays in author; lookups go through this lowercased copy, the same
+    // normalization users get, so "Alice" and "alice" name one timeline.
+    @Column(nullable = true)
+    @JsonIgnore
+    private String authorKey;
 
+    @Column(nullable = false,length = 2048)
+    @JsonSerialize(using = Base64BinarySerializer.class)
+    @JsonDeserialize(using = Base64BinaryDeserializer.class)
     private String signature;
 
     public MicroblogPost() {
@@ -42,10 +82,31 @@ public class MicroblogPost {
         this.signature = signature;
     }
 
+    @PrePersist
+    void deriveColumns() {
+        postedAt = parseDate(date);
+        authorKey = author == null ? null : MicrobloggerService.normalize(author);
+    }
+
+    static Instant parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(date).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     // Getters and setters
 
 
 
+    public Instant getPostedAt() {
+        return postedAt;
+    }
+
     public String getAuthor() {
         return author;
     }
@@ -78,6 +139,30 @@ public class MicroblogPost {
         this.attachment = attachment;
     }
 
+    public String getAttachmentHash() {
+        return attachmentHash;
+    }
+
+    public void setAttachmentHash(String attachmentHash) {
+        this.attachmentHash = attachmentHash;
+    }
+
+    public Long getAttachmentSize() {
+        return attachmentSize;
+    }
+
+    public void setAttachmentSize(Long attachmentSize) {
+        this.attachmentSize = attachmentSize;
+    }
+
+    public String getAttachmentType() {
+        return attachmentType;
+    }
+
+    public void setAttachmentType(String attachmentType) {
+        this.attachmentType = attachmentType;
+    }
+
     public String getSignature() {
         return signature;
     }
@@ -1,7 +1,16 @@
 package edu.sjsu.cmpe272.simpleblog.server;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity
 public class Microblogger {
+    @Column(nullable = false, length = 2048)
     private String publicKey;
+
+    @Id
+    @Column(name = "username")
     private String user;
 
     public Microblogger() {}
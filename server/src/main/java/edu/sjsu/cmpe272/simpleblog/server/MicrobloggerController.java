@@ -1,9 +1,9 @@
 package edu.sjsu.cmpe272.simpleblog.server;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +14,15 @@ public class MicrobloggerController {
     @Autowired
     private MicrobloggerService microbloggerService;
 
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private HomeTimeline homeTimeline;
+
+    @Autowired(required = false)
+    private ClusterFollower clusterFollower;
+
     @GetMapping("/{username}/public-key")
     public ResponseEntity<?> getPublicKey(@PathVariable String username) {
         String publicKey = microbloggerService.getPublicKeyByUsername(username);
@@ -28,15 +37,107 @@ public class MicrobloggerController {
         String publicKey = params.getPublicKey().replace("-----BEGIN PUBLIC KEY-----", "")
                 .replace("-----END PUBLIC KEY-----", "")
                 .replaceAll("\\s", "");
-    microbloggerService.createUser(params.getUser(),publicKey);
+        if (clusterFollower != null) {
+            try {
+                clusterFollower.createUser(params.getUser(), publicKey);
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of("error", "leader unavailable"));
+            }
+        } else {
+            microbloggerService.createUser(params.getUser(), publicKey);
+        }
         return ResponseEntity.ok(Map.of("message", "welcome"));
     }
 
+    @GetMapping("/{username}/messages")
+    public ResponseEntity<?> listUserMessages(@PathVariable String username,
+                                              @RequestParam(defaultValue = "10") int limit,
+                                              @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > 20) {
+            return ResponseEntity.badRequest().body("Error: Limit value out of range 20");
+        }
+        long before = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                before = MessageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "invalid cursor"));
+            }
+        }
+
+        List<MicroblogPost> messages = messageStore.findByAuthorBefore(username, before, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (messages.size() == limit) {
+            long lastId = messages.get(messages.size() - 1).getMessageId();
+            response.header(MicroblogController.NEXT_CURSOR_HEADER, MessageCursor.encode(lastId));
+        }
+        return response.body(messages);
+    }
+
+    @PostMapping("/{username}/follow/{followee}")
+    public ResponseEntity<?> follow(@PathVariable String username, @PathVariable String followee) {
+        ResponseEntity<?> invalid = checkPair(username, followee);
+        if (invalid != null) {
+            return invalid;
+        }
+        boolean changed = homeTimeline.follow(username, followee);
+        return ResponseEntity.ok(Map.of("message", changed ? "following" : "already following"));
+    }
+
+    @PostMapping("/{username}/unfollow/{followee}")
+    public ResponseEntity<?> unfollow(@PathVariable String username, @PathVariable String followee) {
+        ResponseEntity<?> invalid = checkPair(username, followee);
+        if (invalid != null) {
+            return invalid;
+        }
+        boolean changed = homeTimeline.unfollow(username, followee);
+        return ResponseEntity.ok(Map.of("message", changed ? "unfollowed" : "not following"));
+    }
+
+    @GetMapping("/{username}/home")
+    public ResponseEntity<?> home(@PathVariable String username,
+                                  @RequestParam(defaultValue = "10") int limit,
+                                  @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > 20) {
+            return ResponseEntity.badRequest().body("Error: Limit value out of range 20");
+        }
+        if (microbloggerService.getPublicKey(username) == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "unknown user"));
+        }
+        long before = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                before = MessageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "invalid cursor"));
+            }
+        }
+
+        List<MicroblogPost> messages = homeTimeline.page(username, before, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (messages.size() == limit) {
+            long lastId = messages.get(messages.size() - 1).getMessageId();
+            response.header(MicroblogController.NEXT_CURSOR_HEADER, MessageCursor.encode(lastId));
+        }
+        return response.body(messages);
+    }
+
     @PostMapping("/list")
     public ResponseEntity<?> listMessages() {
-        Map<String, String> users = MicrobloggerService.microbloggerPublicKeys;
-        List<String> keyList = new ArrayList<>(users.keySet());
+        List<String> keyList = microbloggerService.getUsernames();
         return ResponseEntity.ok(keyList);
     }
 
+    private ResponseEntity<?> checkPair(String username, String followee) {
+        if (microbloggerService.getPublicKey(username) == null || microbloggerService.getPublicKey(followee) == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "unknown user"));
+        }
+        if (MicrobloggerService.normalize(username).equals(MicrobloggerService.normalize(followee))) {
+            return ResponseEntity.badRequest().body(Map.of("error", "cannot follow yourself"));
+        }
+        return null;
+    }
+
 }
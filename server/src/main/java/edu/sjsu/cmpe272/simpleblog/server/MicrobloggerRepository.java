@@ -0,0 +1,7 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+
+
+public interface MicrobloggerRepository extends JpaRepository<Microblogger, String> {
+}
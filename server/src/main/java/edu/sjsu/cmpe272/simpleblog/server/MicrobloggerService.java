@@ -1,26 +1,113 @@
 package edu.sjsu.cmpe272.simpleblog.server;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.*;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 public class MicrobloggerService {
     private final ObjectMapper objectMapper = new ObjectMapper();
-    public static Map<String, String> microbloggerPublicKeys = new HashMap<>();
+
+    // Read-optimized index over the persisted users; the post path only ever reads from here.
+    private final Map<String, String> microbloggerPublicKeys = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MicrobloggerRepository microbloggerRepository;
+
+    @Autowired
+    private PublicKeyCache publicKeyCache;
+
+    // Set on cluster followers: asks the leader for users this node has not synced yet.
+    private volatile Function<String, String> remoteLookup;
+
+    // Names the leader did not know, with the nanoTime until which they are not asked for again,
+    // so posts under made-up names cost a map lookup rather than a round-trip each.
+    private final Map<String, Long> remoteMisses = new ConcurrentHashMap<>();
+    private static final int MAX_REMOTE_MISSES = 10_000;
+
+    @Value("${microblog.cluster.lookup-miss-seconds:5}")
+    private long lookupMissSeconds;
+
+    @PostConstruct
+    void loadUsers() {
+        for (Microblogger microblogger : microbloggerRepository.findAll()) {
+            microbloggerPublicKeys.put(microblogger.getUser(), microblogger.getPublicKey());
+        }
+    }
 
     public void createUser(String username, String publicKey) {
-        microbloggerPublicKeys.put(username.toLowerCase(), publicKey);
+        String key = normalize(username);
+        microbloggerRepository.save(new Microblogger(key, publicKey));
+        microbloggerPublicKeys.put(key, publicKey);
+        publicKeyCache.evict(key);
+        remoteMisses.remove(key);
+    }
+
+    public void setRemoteLookup(Function<String, String> remoteLookup) {
+        this.remoteLookup = remoteLookup;
     }
 
+    /** Local users only; on a follower, users not synced yet appear within user-sync-seconds. */
     public String getPublicKey(String username) {
-        return microbloggerPublicKeys.get(username.toLowerCase());
+        if (username == null) {
+            return null;
+        }
+        return microbloggerPublicKeys.get(normalize(username));
+    }
+
+    /**
+     * The key a post is verified with. On a follower an unknown author is looked up on the
+     * leader, so callers must have passed the client admission check first.
+     */
+    public PublicKey getParsedPublicKey(String username) {
+        if (username == null) {
+            return null;
+        }
+        String key = normalize(username);
+        return publicKeyCache.get(key, lookup(key));
+    }
+
+    public List<String> getUsernames() {
+        return new ArrayList<>(microbloggerPublicKeys.keySet());
+    }
+
+    public Map<String, String> getPublicKeys() {
+        return Map.copyOf(microbloggerPublicKeys);
+    }
+
+    private String lookup(String key) {
+        String publicKey = microbloggerPublicKeys.get(key);
+        Function<String, String> remote = remoteLookup;
+        if (publicKey == null && remote != null) {
+            Long retryAt = remoteMisses.get(key);
+            if (retryAt != null && retryAt - System.nanoTime() > 0) {
+                return null;
+            }
+            publicKey = remote.apply(key);
+            if (publicKey != null) {
+                createUser(key, publicKey);
+            } else {
+                if (remoteMisses.size() >= MAX_REMOTE_MISSES) {
+                    remoteMisses.clear();
+                }
+                remoteMisses.put(key, System.nanoTime() + TimeUnit.SECONDS.toNanos(lookupMissSeconds));
+            }
+        }
+        return publicKey;
     }
 
 
@@ -34,10 +121,7 @@ public class MicrobloggerService {
     }
 
     public String getPublicKeyByUsername(String username) {
-        if(microbloggerPublicKeys.containsKey(username)){
-            return microbloggerPublicKeys.get(username);
-        }
-        return null;
+        return getPublicKey(username);
     }
 
     public static PublicKey getPublicKeyFromString(String key) throws Exception {
@@ -52,4 +136,8 @@ public class MicrobloggerService {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
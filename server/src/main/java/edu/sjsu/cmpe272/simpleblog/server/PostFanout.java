@@ -0,0 +1,58 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Everything that follows a durable save, whether the post was created here or replicated
+ * from another node: the read-side indexes, the live feed and follower home inboxes are updated, and anyone waiting
+ * in {@link #awaitChange} (replication long-polls, the follower's push loop) is woken.
+ */
+@Component
+public class PostFanout {
+    @Autowired
+    private TimelineCache timelineCache;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private LiveFeed liveFeed;
+
+    @Autowired
+    private HomeTimeline homeTimeline;
+
+    // Distinguishes this process's versions from those of earlier runs, e.g. in list ETags.
+    private final long epoch = System.currentTimeMillis();
+
+    private long version;
+
+    public void saved(MicroblogPost post) {
+        timelineCache.append(post);
+        searchIndex.add(post);
+        liveFeed.publish(post);
+        homeTimeline.deliver(post);
+        synchronized (this) {
+            version++;
+            notifyAll();
+        }
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /** Waits until a post is saved after {@code seen} was read from {@link #version}, or the timeout passes. */
+    public synchronized void awaitChange(long seen, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (version == seen && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+}
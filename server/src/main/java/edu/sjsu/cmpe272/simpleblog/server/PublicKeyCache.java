@@ -0,0 +1,66 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of parsed RSA public keys keyed by username. Each entry remembers the
+ * encoded key it was parsed from, so a rotated key is never served stale even if the
+ * explicit eviction on re-registration is missed.
+ */
+@Component
+public class PublicKeyCache {
+    private record Entry(String encodedKey, PublicKey publicKey) {}
+
+    private final ConcurrentHashMap<String, Entry> keys = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    public PublicKeyCache(@Value("${microblog.key-cache.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public PublicKey get(String username, String encodedKey) {
+        if (username == null || encodedKey == null) {
+            return null;
+        }
+        Entry entry = keys.get(username);
+        if (entry != null && entry.encodedKey().equals(encodedKey)) {
+            return entry.publicKey();
+        }
+
+        PublicKey publicKey;
+        try {
+            publicKey = MicrobloggerService.getPublicKeyFromString(encodedKey);
+        } catch (Exception e) {
+            return null;
+        }
+        if (publicKey == null) {
+            return null;
+        }
+        if (entry == null && keys.size() >= capacity) {
+            evictOne();
+        }
+        keys.put(username, new Entry(encodedKey, publicKey));
+        return publicKey;
+    }
+
+    public void evict(String username) {
+        keys.remove(username);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private void evictOne() {
+        Iterator<String> it = keys.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
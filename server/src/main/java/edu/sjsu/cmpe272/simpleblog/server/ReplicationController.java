@@ -0,0 +1,224 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The leader's side of cluster mode. The leader's store is the shared message log: followers
+ * append the posts they ingested into their own id range, and tail everyone else's ranges by
+ * high-water mark with a long poll. Each range is written in id order by exactly one node, so
+ * a per-range watermark never skips a post.
+ * <p>
+ * Every call must carry the shared {@code microblog.cluster.token}, and appended posts are
+ * verified against their author's key like a create, so a follower cannot inject posts the
+ * author never signed. A post that fails verification is rejected on its own and reported back
+ * by id, so the rest of the batch is stored and the follower's push position moves past it.
+ */
+@RestController
+@RequestMapping("/replication")
+@ConditionalOnProperty(name = "microblog.cluster.role", havingValue = "leader")
+public class ReplicationController {
+    static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private MicrobloggerService microbloggerService;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private PostFanout postFanout;
+
+    @Value("${microblog.cluster.node-id:0}")
+    private int nodeId;
+
+    @Value("${microblog.cluster.token:}")
+    private String token;
+
+    @Value("${microblog.storage:jpa}")
+    private String storage;
+
+    @PostConstruct
+    void checkConfig() {
+        if (!"jpa".equals(storage)) {
+            throw new IllegalStateException("cluster mode needs microblog.storage=jpa");
+        }
+        if (token.isBlank()) {
+            throw new IllegalStateException("cluster mode needs microblog.cluster.token");
+        }
+    }
+
+    /**
+     * {@code ranges} lists {@code node:lastId} pairs, the highest id the caller already holds from
+     * each node's range. Blocks up to {@code wait} seconds when nothing newer exists yet.
+     */
+    @GetMapping("/messages")
+    public ResponseEntity<?> tail(@RequestParam String ranges,
+                                  @RequestParam(defaultValue = "500") int limit,
+                                  @RequestParam(defaultValue = "20") int wait,
+                                  @RequestHeader(name = TOKEN_HEADER, required = false) String callerToken) {
+        if (!authorized(callerToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long[][] watermarks;
+        try {
+            watermarks = parseRanges(ranges);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "invalid ranges"));
+        }
+        int max = Math.max(1, Math.min(limit, 1000));
+
+        long seen = postFanout.version();
+        List<MicroblogPost> posts = collect(watermarks, max);
+        if (posts.isEmpty() && wait > 0) {
+            try {
+                postFanout.awaitChange(seen, TimeUnit.SECONDS.toMillis(Math.min(wait, 30)));
+            } catch (InterruptedException e) {
+                // shutting down: answer the poll empty so the follower simply retries
+                Thread.currentThread().interrupt();
+                return ResponseEntity.ok(List.of());
+            }
+            posts = collect(watermarks, max);
+        }
+        return ResponseEntity.ok(posts);
+    }
+
+    @PostMapping("/append")
+    public ResponseEntity<?> append(@RequestBody List<MicroblogPost> posts,
+                                    @RequestHeader(name = TOKEN_HEADER, required = false) String callerToken) {
+        if (!authorized(callerToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        for (MicroblogPost post : posts) {
+            if (post.getMessageId() == null || MessageIdAllocator.nodeOf(post.getMessageId()) == nodeId) {
+                return ResponseEntity.badRequest().body(Map.of("error", "message id outside the sender's range"));
+            }
+        }
+        List<MicroblogPost> verified = new ArrayList<>(posts.size());
+        List<Long> rejected = new ArrayList<>();
+        for (MicroblogPost post : posts) {
+            if (signedByAuthor(post) && attachmentMatches(post)) {
+                verified.add(post);
+            } else {
+                rejected.add(post.getMessageId());
+            }
+        }
+        List<MicroblogPost> stored = messageStore.replicate(verified);
+        stored.forEach(postFanout::saved);
+        return ResponseEntity.ok(Map.of("stored", stored.size(), "rejected", rejected));
+    }
+
+    /** The highest id the leader holds from {@code node}'s range; a follower resumes pushing after it. */
+    @GetMapping("/watermark")
+    public ResponseEntity<?> watermark(@RequestParam int node,
+                                       @RequestHeader(name = TOKEN_HEADER, required = false) String callerToken) {
+        if (!authorized(callerToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(Map.of("node", node, "after", highWater(messageStore, node)));
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<?> users(@RequestHeader(name = TOKEN_HEADER, required = false) String callerToken) {
+        if (!authorized(callerToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<Map<String, String>> users = new ArrayList<>();
+        microbloggerService.getPublicKeys().forEach((user, publicKey) -> users.add(Map.of("user", user, "publicKey", publicKey)));
+        return ResponseEntity.ok(users);
+    }
+
+    private boolean authorized(String callerToken) {
+        return callerToken != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), callerToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Runs before the attachment is moved to the store, while its bytes are still inline.
+    private boolean signedByAuthor(MicroblogPost post) {
+        PublicKey publicKey = microbloggerService.getParsedPublicKey(post.getAuthor());
+        if (publicKey == null) {
+            return false;
+        }
+        try {
+            return VerifySignature.AuthenticateSignature(post, publicKey);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean attachmentMatches(MicroblogPost post) {
+        if (post.getAttachment() == null) {
+            return true;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(post.getAttachment());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (!attachmentStore.store(bytes).equals(post.getAttachmentHash())) {
+            return false;
+        }
+        post.setAttachment(null);
+        return true;
+    }
+
+    static long highWater(MessageStore store, int node) {
+        List<MicroblogPost> newest = store.findBefore(MessageIdAllocator.rangeStart(node + 1), 1);
+        long start = MessageIdAllocator.rangeStart(node);
+        return newest.isEmpty() ? start : Math.max(start, newest.get(0).getMessageId());
+    }
+
+    private List<MicroblogPost> collect(long[][] watermarks, int limit) {
+        List<MicroblogPost> posts = new ArrayList<>();
+        for (long[] range : watermarks) {
+            if (posts.size() >= limit) {
+                break;
+            }
+            int node = (int) range[0];
+            long after = Math.max(range[1], MessageIdAllocator.rangeStart(node));
+            posts.addAll(messageStore.findBetween(after, MessageIdAllocator.rangeStart(node + 1), limit - posts.size()));
+        }
+        return posts;
+    }
+
+    private static long[][] parseRanges(String ranges) {
+        String[] pairs = ranges.split(",");
+        long[][] parsed = new long[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            String[] parts = pairs[i].split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(pairs[i]);
+            }
+            long node = Long.parseLong(parts[0].trim());
+            if (node < 0 || node >= 1 << (63 - MessageIdAllocator.NODE_SHIFT)) {
+                throw new IllegalArgumentException(pairs[i]);
+            }
+            parsed[i] = new long[]{node, Long.parseLong(parts[1].trim())};
+        }
+        return parsed;
+    }
+}
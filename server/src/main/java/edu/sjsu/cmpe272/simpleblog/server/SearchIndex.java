@@ -0,0 +1,155 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process inverted index from lowercased terms of a post's message and author to the
+ * ascending message ids that contain them. A query intersects the posting lists from the
+ * cursor downward, so its cost depends on the postings it touches, not on the corpus size.
+ */
+@Component
+public class SearchIndex {
+    private static final int REBUILD_PAGE = 1000;
+
+    /** Sorted ids; appends publish a new immutable view so readers never lock. */
+    static final class Postings {
+        record View(long[] ids, int size) {}
+
+        private volatile View view = new View(new long[4], 0);
+
+        synchronized void add(long id) {
+            View current = view;
+            long[] ids = current.ids();
+            int size = current.size();
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                // Out-of-order commit: insert into a fresh copy so published views stay intact.
+                pos = -pos - 1;
+                long[] copy = new long[Math.max(ids.length, size + 1)];
+                System.arraycopy(ids, 0, copy, 0, pos);
+                copy[pos] = id;
+                System.arraycopy(ids, pos, copy, pos + 1, size - pos);
+                view = new View(copy, size + 1);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            view = new View(ids, size + 1);
+        }
+
+        View view() {
+            return view;
+        }
+    }
+
+    @Autowired
+    private MessageStore messageStore;
+
+    private final ConcurrentHashMap<String, Postings> terms = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        terms.clear();
+        long after = 0;
+        List<MicroblogPost> page;
+        do {
+            page = messageStore.findAfter(after, REBUILD_PAGE);
+            for (MicroblogPost post : page) {
+                add(post);
+                after = post.getMessageId();
+            }
+        } while (page.size() == REBUILD_PAGE);
+    }
+
+    public void add(MicroblogPost post) {
+        Set<String> tokens = tokenize(post.getMessage());
+        tokens.addAll(tokenize(post.getAuthor()));
+        for (String token : tokens) {
+            terms.computeIfAbsent(token, t -> new Postings()).add(post.getMessageId());
+        }
+    }
+
+    /**
+     * Ids of posts containing every term of the query with ids below {@code before}, newest
+     * first, at most {@code limit} of them.
+     */
+    public long[] search(String query, long before, int limit) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+        Postings.View[] lists = new Postings.View[tokens.size()];
+        int n = 0;
+        for (String token : tokens) {
+            Postings postings = terms.get(token);
+            if (postings == null) {
+                return new long[0];
+            }
+            lists[n++] = postings.view();
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings.View::size));
+
+        // Walk the rarest term downward; each other list keeps a shrinking upper bound.
+        int[] upper = new int[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            upper[i] = lowerBound(lists[i].ids(), lists[i].size(), before);
+        }
+        long[] result = new long[limit];
+        int found = 0;
+        long[] driver = lists[0].ids();
+        for (int i = upper[0] - 1; i >= 0 && found < limit; i--) {
+            long candidate = driver[i];
+            boolean all = true;
+            for (int j = 1; j < lists.length && all; j++) {
+                int pos = Arrays.binarySearch(lists[j].ids(), 0, upper[j], candidate);
+                if (pos >= 0) {
+                    upper[j] = pos;
+                } else {
+                    upper[j] = -pos - 1;
+                    all = false;
+                }
+                if (upper[j] == 0 && !all) {
+                    return Arrays.copyOf(result, found);
+                }
+            }
+            if (all) {
+                result[found++] = candidate;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Number of ids strictly below the bound in an ascending array.
+    private static int lowerBound(long[] ids, int size, long bound) {
+        int pos = Arrays.binarySearch(ids, 0, size, bound);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
@@ -0,0 +1,166 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.Base64;
+
+/**
+ * The canonical bytes a post signature covers. After the {@link #VERSION} tag come date, author,
+ * message and the decoded attachment, each preceded by its length in bytes as a big-endian
+ * long, or -1 when the field is absent. Text is UTF-8.
+ * <p>
+ * The bytes are streamed straight into the {@link Signature}. The attachment is decoded through
+ * a fixed buffer, so memory use does not grow with attachment size. The client writes the same
+ * format; the golden vectors in SigningPayloadTests keep the two sides in step.
+ */
+public final class SigningPayload {
+    static final byte[] VERSION = "simpleblog-sig-v1".getBytes(StandardCharsets.US_ASCII);
+
+    private SigningPayload() {
+    }
+
+    public static void update(Signature signature, String date, String author, String message, String base64Attachment)
+            throws SignatureException {
+        try {
+            write(new SignatureStream(signature), date, author, message, base64Attachment);
+        } catch (IOException e) {
+            if (e.getCause() instanceof SignatureException cause) {
+                throw cause;
+            }
+            throw new IllegalArgumentException("attachment is not valid base64", e);
+        }
+    }
+
+    public static void update(Signature signature, String date, String author, String message,
+                              InputStream attachment, long attachmentLength) throws SignatureException, IOException {
+        try {
+            write(new SignatureStream(signature), date, author, message, attachment, attachmentLength);
+        } catch (IOException e) {
+            if (e.getCause() instanceof SignatureException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Writes the payload for an inline base64 attachment, which may be null. */
+    static void write(OutputStream out, String date, String author, String message, String base64Attachment) throws IOException {
+        if (base64Attachment == null) {
+            write(out, date, author, message, null, -1);
+            return;
+        }
+        InputStream decoded = Base64.getDecoder().wrap(new CharsInputStream(base64Attachment));
+        write(out, date, author, message, decoded, decodedLength(base64Attachment));
+    }
+
+    static void write(OutputStream out, String date, String author, String message,
+                      InputStream attachment, long attachmentLength) throws IOException {
+        out.write(VERSION);
+        writeText(out, date);
+        writeText(out, author);
+        writeText(out, message);
+        if (attachment == null) {
+            writeLength(out, -1);
+            return;
+        }
+        writeLength(out, attachmentLength);
+        byte[] buffer = new byte[8192];
+        long remaining = attachmentLength;
+        int read;
+        while (remaining > 0 && (read = attachment.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        if (remaining != 0 || attachment.read() != -1) {
+            throw new IllegalArgumentException("attachment does not match its declared length");
+        }
+    }
+
+    static long decodedLength(String base64) {
+        int length = base64.length();
+        if (length % 4 != 0) {
+            throw new IllegalArgumentException("attachment is not padded base64");
+        }
+        int padding = length == 0 ? 0 : (base64.charAt(length - 1) == '=' ? 1 : 0) + (base64.charAt(length - 2) == '=' ? 1 : 0);
+        return (long) length / 4 * 3 - padding;
+    }
+
+    private static void writeText(OutputStream out, String text) throws IOException {
+        if (text == null) {
+            writeLength(out, -1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeLength(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeLength(OutputStream out, long length) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (length >>> shift));
+        }
+    }
+
+    /** Feeds written bytes into a signature; SignatureExceptions travel as the cause of an IOException. */
+    private static final class SignatureStream extends OutputStream {
+        private final Signature signature;
+
+        SignatureStream(Signature signature) {
+            this.signature = signature;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                signature.update((byte) b);
+            } catch (SignatureException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                signature.update(b, off, len);
+            } catch (SignatureException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /** Reads the ASCII characters of a base64 string without copying it. */
+    private static final class CharsInputStream extends InputStream {
+        private final String chars;
+        private int position;
+
+        CharsInputStream(String chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read() {
+            return position < chars.length() ? toByte(chars.charAt(position++)) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= chars.length()) {
+                return -1;
+            }
+            int count = Math.min(len, chars.length() - position);
+            for (int i = 0; i < count; i++) {
+                b[off + i] = toByte(chars.charAt(position++));
+            }
+            return count;
+        }
+
+        // Anything outside ASCII becomes a byte the base64 decoder rejects.
+        private static byte toByte(char c) {
+            return c < 0x80 ? (byte) c : (byte) 0xFF;
+        }
+    }
+}
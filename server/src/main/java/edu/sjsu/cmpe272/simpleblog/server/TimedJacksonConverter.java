@@ -0,0 +1,49 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The regular Jackson converter, timed so request binding and response serialization show up
+ * as their own stages in HotPathMetrics. Spring Boot backs off its default converter for this one.
+ */
+@Component
+public class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+    private final HotPathMetrics metrics;
+
+    public TimedJacksonConverter(ObjectMapper objectMapper, HotPathMetrics metrics) {
+        super(objectMapper);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        long start = System.nanoTime();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            metrics.jsonBind.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            metrics.serialize.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
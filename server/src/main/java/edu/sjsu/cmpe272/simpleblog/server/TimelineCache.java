@@ -0,0 +1,147 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The newest posts, newest first, each kept as its already serialized JSON so a hot page
+ * is a byte concatenation. Writers copy and publish a new immutable snapshot; readers only
+ * do a volatile read and never lock.
+ */
+@Component
+public class TimelineCache {
+    /**
+     * {@code floor} is the smallest id from which the snapshot is known to hold every post;
+     * zero means the whole table is cached, {@code Long.MAX_VALUE} means nothing is.
+     */
+    private record Snapshot(long[] ids, byte[][] json, long floor) {}
+
+    public record Page(byte[] json, int count, long lastId) {}
+
+    private static final Snapshot EMPTY = new Snapshot(new long[0], new byte[0][], Long.MAX_VALUE);
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Snapshot snapshot = EMPTY;
+
+    public TimelineCache(@Value("${microblog.timeline-cache.size:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        if (capacity <= 0) {
+            snapshot = EMPTY;
+            return;
+        }
+        List<MicroblogPost> newest = messageStore.findBefore(Long.MAX_VALUE, capacity);
+        long[] ids = new long[newest.size()];
+        byte[][] json = new byte[newest.size()][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = newest.get(i).getMessageId();
+            json[i] = serialize(newest.get(i));
+        }
+        long floor = ids.length < capacity ? 0 : ids[ids.length - 1];
+        snapshot = new Snapshot(ids, json, floor);
+    }
+
+    public synchronized void append(MicroblogPost post) {
+        if (capacity <= 0) {
+            return;
+        }
+        Snapshot current = snapshot;
+        long id = post.getMessageId();
+        int pos = firstBelow(current.ids(), id + 1);
+        boolean cached = pos < current.ids().length && current.ids()[pos] == id;
+        if (cached || pos >= capacity || id < current.floor() && current.floor() != 0) {
+            return;
+        }
+
+        int length = Math.min(current.ids().length + 1, capacity);
+        long[] ids = new long[length];
+        byte[][] json = new byte[length][];
+        System.arraycopy(current.ids(), 0, ids, 0, pos);
+        System.arraycopy(current.json(), 0, json, 0, pos);
+        ids[pos] = id;
+        json[pos] = serialize(post);
+        System.arraycopy(current.ids(), pos, ids, pos + 1, length - pos - 1);
+        System.arraycopy(current.json(), pos, json, pos + 1, length - pos - 1);
+
+        long floor = current.floor();
+        if (length < current.ids().length + 1) {
+            floor = Math.max(floor, ids[length - 1]);
+        }
+        snapshot = new Snapshot(ids, json, floor);
+    }
+
+    /**
+     * Returns up to {@code limit} posts with ids below {@code before}, or null when the cache
+     * cannot prove the page is complete and the caller has to go to the MessageStore.
+     */
+    public Page page(long before, int limit) {
+        Snapshot current = snapshot;
+        int start = firstBelow(current.ids(), before);
+        int available = current.ids().length - start;
+        if (available < limit && current.floor() != 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+
+        int count = Math.min(limit, available);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 512 + 2);
+        out.write('[');
+        for (int i = start; i < start + count; i++) {
+            if (i > start) {
+                out.write(',');
+            }
+            out.writeBytes(current.json()[i]);
+        }
+        out.write(']');
+        long lastId = count == 0 ? before : current.ids()[start + count - 1];
+        return new Page(out.toByteArray(), count, lastId);
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of("hits", hits.sum(), "misses", misses.sum(), "size", (long) snapshot.ids().length);
+    }
+
+    // Index of the first id strictly below the bound in a descending array.
+    private static int firstBelow(long[] ids, long bound) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] >= bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private byte[] serialize(MicroblogPost post) {
+        try {
+            return objectMapper.writeValueAsBytes(post);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by an arbitrary string, kept in the GCRA form: each key holds only the
+ * theoretical arrival time of its next token, so admitting a request is one CAS on an
+ * AtomicLong and no lock is ever taken. Keys are spread over ConcurrentHashMap's bins, and
+ * buckets that have fully refilled are indistinguishable from absent ones, so they are swept
+ * once the map grows past {@code maxKeys}, at most once per refill interval.
+ */
+public class TokenBucketLimiter {
+    private final long interval;
+    private final long tolerance;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int burst;
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucketLimiter(double perSecond, int burst, int maxKeys, LongSupplier clock) {
+        this.interval = (long) (1_000_000_000L / perSecond);
+        this.tolerance = interval * burst;
+        this.burst = burst;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes {@code cost} tokens for the key; returns 0 when admitted, otherwise the nanos until it
+     * would be. A cost above the burst could never be admitted and is an IllegalArgumentException.
+     */
+    public long tryAcquire(String key, int cost) {
+        if (cost > burst) {
+            throw new IllegalArgumentException("cost " + cost + " exceeds burst " + burst);
+        }
+        long now = clock.getAsLong();
+        // One sweep per refill interval at most, so a map full of live keys is not rescanned on every call.
+        long sweepAt = nextSweep.get();
+        if (buckets.size() > maxKeys && now >= sweepAt && nextSweep.compareAndSet(sweepAt, now + interval)) {
+            buckets.values().removeIf(tat -> tat.get() <= now);
+        }
+        AtomicLong tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + cost * interval;
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,17 +1,41 @@
 package edu.sjsu.cmpe272.simpleblog.server;
 
+import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class VerifySignature {
+    // Signature instances are not thread-safe but are reusable after initVerify. A ThreadLocal would
+    // never be reused under virtual threads (one fresh thread per request), so borrow from a small
+    // shared pool instead; when it is empty a new instance is made and returned to the pool if it fits.
+    private static final BlockingQueue<Signature> VERIFIERS =
+            new ArrayBlockingQueue<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
     public static boolean AuthenticateSignature(MicroblogPost message, PublicKey publicKey) throws Exception {
-        String messageSignature = message.getSignature();
-        byte[] decoded = Base64.getDecoder().decode(messageSignature);
-        String data =message.getDate() + message.getAuthor() + message.getMessage() + message.getAttachment();
-        Signature sig = Signature.getInstance("SHA256withRSA");
-        sig.initVerify(publicKey);
-        sig.update(data.getBytes());
-        return sig.verify(decoded);
+        if (message.getSignature() == null) {
+            return false;
+        }
+        byte[] decoded = Base64.getDecoder().decode(message.getSignature());
+        Signature sig = borrow();
+        try {
+            sig.initVerify(publicKey);
+            try {
+                SigningPayload.update(sig, message.getDate(), message.getAuthor(), message.getMessage(), message.getAttachment());
+            } catch (IllegalArgumentException e) {
+                // malformed attachment: it cannot be what the author signed
+                return false;
+            }
+            return sig.verify(decoded);
+        } finally {
+            VERIFIERS.offer(sig);
+        }
+    }
+
+    private static Signature borrow() throws NoSuchAlgorithmException {
+        Signature sig = VERIFIERS.poll();
+        return sig != null ? sig : Signature.getInstance("SHA256withRSA");
     }
 }
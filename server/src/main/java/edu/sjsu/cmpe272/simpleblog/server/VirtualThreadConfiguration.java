@@ -0,0 +1,22 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in mode (microblog.virtual-threads.enabled=true) that runs every Tomcat request on its
+ * own virtual thread, so a request blocked on JDBC no longer holds a platform thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "microblog.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
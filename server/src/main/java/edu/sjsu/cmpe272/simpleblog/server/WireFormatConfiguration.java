@@ -0,0 +1,22 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Adds CBOR (application/cbor) as an opt-in wire format. It is appended after the JSON
+ * converter, so clients that send {@code Accept: *}{@code /*} keep getting JSON.
+ */
+@Configuration
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build()));
+    }
+}
@@ -0,0 +1,188 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** A leader and a follower on localhost, each with its own database and data directory. */
+class ClusterReplicationTests {
+    private static final String TOKEN = "test-cluster-token";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void postsOnEitherNodeReachBoth() throws Exception {
+        String leader = start("leader", 0, null);
+        String follower = start("follower", 1, leader);
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair keyPair = keyGen.generateKeyPair();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        assertEquals(200, post(follower + "/user/create", Map.of("user", "alice", "publicKey", publicKey)).statusCode());
+
+        byte[] attachment = {7, 7, 7};
+        long followerId = objectMapper.readTree(post(follower + "/messages/create",
+                signed(keyPair, "from follower", Base64.getEncoder().encodeToString(attachment))).body()).get("message-id").asLong();
+        long leaderId = objectMapper.readTree(post(leader + "/messages/create", signed(keyPair, "from leader", null)).body())
+                .get("message-id").asLong();
+        assertTrue(leaderId < MessageIdAllocator.rangeStart(1));
+        assertTrue(followerId >= MessageIdAllocator.rangeStart(1));
+
+        // Ordering is per node range: the follower's older post still lists above the leader's.
+        for (String node : List.of(leader, follower)) {
+            assertEquals(List.of("from follower", "from leader"), awaitMessages(node, 2));
+        }
+        HttpResponse<byte[]> copied = http.send(HttpRequest.newBuilder(URI.create(leader + "/messages/" + followerId + "/attachment")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertArrayEquals(attachment, copied.body());
+    }
+
+    @Test
+    void leaderRefusesUnauthenticatedCallsAndForgedPosts() throws Exception {
+        assertThrows(Exception.class, () -> start("leader", 0, null, ""));
+        String leader = start("leader", 0, null);
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair keyPair = keyGen.generateKeyPair();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        assertEquals(200, post(leader + "/user/create", Map.of("user", "alice", "publicKey", publicKey)).statusCode());
+
+        Map<String, Object> genuine = new LinkedHashMap<>(signed(keyPair, "genuine", null));
+        genuine.put("messageId", MessageIdAllocator.rangeStart(1) + 1);
+        Map<String, Object> forged = new LinkedHashMap<>(genuine);
+        forged.put("message", "forged");
+        forged.put("messageId", MessageIdAllocator.rangeStart(1) + 2);
+
+        assertEquals(403, append(leader, List.of(genuine), null).statusCode());
+        assertEquals(403, append(leader, List.of(genuine), "wrong").statusCode());
+        HttpResponse<String> response = append(leader, List.of(forged, genuine), TOKEN);
+        assertEquals(200, response.statusCode());
+        JsonNode result = objectMapper.readTree(response.body());
+        assertEquals(1, result.get("stored").asInt());
+        assertEquals(MessageIdAllocator.rangeStart(1) + 2, result.get("rejected").get(0).asLong());
+        assertEquals(List.of("genuine"), awaitMessages(leader, 1));
+    }
+
+    @Test
+    void followerPushesPastAPostTheLeaderRejects() throws Exception {
+        String leader = start("leader", 0, null);
+        String follower = start("follower", 1, leader);
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair keyPair = keyGen.generateKeyPair();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        assertEquals(200, post(follower + "/user/create", Map.of("user", "alice", "publicKey", publicKey)).statusCode());
+
+        // Stored on the follower without going through create, so its signature never verifies.
+        nodes.get(1).getBean(MessageStore.class).save(new MicroblogPost("2024-01-01T00:00:00Z", "alice", "unverifiable", null, "c2ln"));
+        assertEquals(200, post(follower + "/messages/create", signed(keyPair, "genuine", null)).statusCode());
+
+        assertEquals(List.of("genuine"), awaitMessages(leader, 1));
+    }
+
+    private String start(String role, int nodeId, String leaderUrl) {
+        return start(role, nodeId, leaderUrl, TOKEN);
+    }
+
+    private String start(String role, int nodeId, String leaderUrl, String token) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:cluster-" + role,
+                "--microblog.data-dir=target/test-data/cluster-" + role,
+                "--microblog.cluster.role=" + role,
+                "--microblog.cluster.node-id=" + nodeId,
+                "--microblog.cluster.token=" + token,
+                "--microblog.cluster.user-sync-seconds=1"));
+        if (leaderUrl != null) {
+            args.add("--microblog.cluster.leader-url=" + leaderUrl);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MicroblogServer.class).run(args.toArray(String[]::new));
+        nodes.add(context);
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private List<String> awaitMessages(String node, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 15_000;
+        List<String> messages = new ArrayList<>();
+        while (System.currentTimeMillis() < deadline) {
+            messages.clear();
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(node + "/messages/list?limit=20")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            for (JsonNode message : objectMapper.readTree(response.body())) {
+                messages.add(message.get("message").asText());
+            }
+            if (messages.size() >= count) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        return messages;
+    }
+
+    private HttpResponse<String> append(String leader, Object posts, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(leader + "/replication/append"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(posts)));
+        if (token != null) {
+            request.header(ReplicationController.TOKEN_HEADER, token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String url, Object body) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<String, Object> signed(KeyPair keyPair, String text, String attachment) throws Exception {
+        String date = "2024-01-01T00:00:00Z";
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        SigningPayload.update(signature, date, "alice", text, attachment);
+
+        Map<String, Object> post = new LinkedHashMap<>();
+        post.put("date", date);
+        post.put("author", "alice");
+        post.put("message", text);
+        post.put("attachment", attachment);
+        post.put("signature", Base64.getEncoder().encodeToString(signature.sign()));
+        return post;
+    }
+}
@@ -0,0 +1,144 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A fan-out limit of 1 makes any account with two followers heavy, so both read paths are exercised.
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:home-timeline", "microblog.data-dir=target/test-data",
+        "microblog.home.fanout-limit=1"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class HomeTimelineTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MicrobloggerService microbloggerService;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private PostFanout postFanout;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void homeMergesPushedInboxWithHeavyAuthors() throws Exception {
+        for (String user : List.of("ann", "bob", "cat", "dan")) {
+            microbloggerService.createUser(user, "key-" + user);
+        }
+        mockMvc.perform(post("/user/ann/follow/dan")).andExpect(jsonPath("$.message").value("following"));
+        mockMvc.perform(post("/user/ann/follow/bob")).andExpect(status().isOk());
+        mockMvc.perform(post("/user/cat/follow/bob")).andExpect(status().isOk());
+        mockMvc.perform(post("/user/ann/follow/ann")).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/user/ann/follow/nobody")).andExpect(status().isBadRequest());
+
+        // Build ann's inbox first, so later posts have to arrive through fan-out.
+        assertEquals(List.of(), home("ann", 20));
+        save("dan", "d1");
+        save("bob", "b1");
+        save("ann", "a1");
+        save("cat", "not followed");
+        save("dan", "d2");
+        awaitHome("ann", List.of("d2", "a1", "b1", "d1"));
+
+        String cursor = mockMvc.perform(get("/user/ann/home").param("limit", "2"))
+                .andExpect(jsonPath("$[1].message").value("a1"))
+                .andExpect(header().exists(MicroblogController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(MicroblogController.NEXT_CURSOR_HEADER);
+        mockMvc.perform(get("/user/ann/home").param("limit", "2").param("cursor", cursor))
+                .andExpect(jsonPath("$[0].message").value("b1"))
+                .andExpect(jsonPath("$[1].message").value("d1"));
+
+        mockMvc.perform(post("/user/ann/unfollow/dan")).andExpect(jsonPath("$.message").value("unfollowed"));
+        awaitHome("ann", List.of("a1", "b1"));
+
+        // cat leaving takes bob back under the limit; his posts are pushed again.
+        mockMvc.perform(post("/user/cat/unfollow/bob")).andExpect(status().isOk());
+        save("bob", "b2");
+        awaitHome("ann", List.of("b2", "a1", "b1"));
+    }
+
+    @Test
+    void inboxesAreRebuiltWhateverTheAuthorsCase() throws Exception {
+        for (String user : List.of("fay", "gus")) {
+            microbloggerService.createUser(user, "key-" + user);
+        }
+        // Stored before fay's inbox exists, signed with a capitalized name.
+        save("Gus", "g1");
+        save("GUS", "g2");
+        mockMvc.perform(post("/user/fay/follow/Gus")).andExpect(status().isOk());
+        awaitHome("fay", List.of("g2", "g1"));
+
+        // An unfollow drops the inbox; following again rebuilds it from the store.
+        mockMvc.perform(post("/user/fay/unfollow/gus")).andExpect(status().isOk());
+        awaitHome("fay", List.of());
+        mockMvc.perform(post("/user/fay/follow/gus")).andExpect(status().isOk());
+        awaitHome("fay", List.of("g2", "g1"));
+    }
+
+    @Test
+    void inboxKeepsNewestIdsAboveItsFloor() {
+        HomeTimeline.Inbox inbox = new HomeTimeline.Inbox(3);
+        for (long id : new long[] {5, 1, 3, 4, 3, 2}) {
+            inbox.insert(id);
+        }
+        assertEquals(3, inbox.size());
+        assertArrayEquals(new long[] {5, 4, 3}, inbox.below(Long.MAX_VALUE, 10).ids());
+        assertArrayEquals(new long[] {4}, inbox.below(5, 1).ids());
+        assertEquals(3, inbox.below(Long.MAX_VALUE, 10).floor());
+
+        HomeTimeline.Inbox large = new HomeTimeline.Inbox(100);
+        for (long id = 1; id <= 10_000; id++) {
+            large.insert(id);
+        }
+        assertEquals(100, large.size());
+        assertArrayEquals(new long[] {10_000, 9_999}, large.below(Long.MAX_VALUE, 2).ids());
+        assertEquals(9_901, large.below(Long.MAX_VALUE, 2).floor());
+    }
+
+    private void save(String author, String text) {
+        postFanout.saved(messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", author, text, null, "sig")));
+    }
+
+    private List<String> home(String user, int limit) throws Exception {
+        String body = mockMvc.perform(get("/user/" + user + "/home").param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> messages = new ArrayList<>();
+        for (JsonNode post : objectMapper.readTree(body)) {
+            messages.add(post.get("message").asText());
+        }
+        return messages;
+    }
+
+    // Fan-out is asynchronous; poll briefly before comparing.
+    private void awaitHome(String user, List<String> expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<String> actual = home(user, 20);
+        while (!actual.equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            actual = home(user, 20);
+        }
+        assertEquals(expected, actual);
+    }
+}
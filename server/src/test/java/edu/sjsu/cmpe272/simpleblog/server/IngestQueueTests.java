@@ -0,0 +1,107 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngestQueueTests {
+    private final AtomicLong ids = new AtomicLong();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void concurrentCreatesShareCommits() throws Exception {
+        CountDownLatch firstCommit = new CountDownLatch(1);
+        IngestQueue queue = new IngestQueue(store(firstCommit), new HotPathMetrics(new SimpleMeterRegistry()), true, "standalone", 1000, 64);
+        try {
+            List<CompletableFuture<MicroblogPost>> saved = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                saved.add(queue.submit(post("m" + i)));
+            }
+            firstCommit.countDown();
+            for (CompletableFuture<MicroblogPost> future : saved) {
+                assertTrue(future.join().getMessageId() > 0);
+            }
+            assertEquals(200, batchSizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(batchSizes.size() < 200, "expected grouped commits, got " + batchSizes);
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 64));
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    void fullQueueRefuses() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        IngestQueue queue = new IngestQueue(store(blocked), new HotPathMetrics(new SimpleMeterRegistry()), true, "standalone", 4, 1);
+        try {
+            // The writer holds one post in a stalled commit, so four more fill the queue.
+            CompletableFuture<MicroblogPost> first = queue.submit(post("stalled"));
+            while (queue.depth() > 0) {
+                Thread.onSpinWait();
+            }
+            for (int i = 0; i < 4; i++) {
+                queue.submit(post("queued" + i));
+            }
+            assertNull(queue.submit(post("overflow")));
+            blocked.countDown();
+            first.join();
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    void writerSurvivesErrorsAndClosedQueueRefuses() throws Exception {
+        MessageStore store = mock(MessageStore.class);
+        when(store.saveAll(anyList()))
+                .thenThrow(new OutOfMemoryError("simulated"))
+                .thenAnswer(invocation -> {
+                    List<MicroblogPost> posts = invocation.getArgument(0);
+                    posts.forEach(post -> post.setMessageId(ids.incrementAndGet()));
+                    return posts;
+                });
+        IngestQueue queue = new IngestQueue(store, new HotPathMetrics(new SimpleMeterRegistry()), true, "standalone", 10, 1);
+        try {
+            CompletableFuture<MicroblogPost> failed = queue.submit(post("first"));
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, error.getCause());
+            assertTrue(queue.submit(post("second")).get(5, TimeUnit.SECONDS).getMessageId() > 0);
+        } finally {
+            queue.close();
+        }
+        assertNull(queue.submit(post("late")));
+    }
+
+    private MessageStore store(CountDownLatch release) {
+        MessageStore store = mock(MessageStore.class);
+        when(store.saveAll(anyList())).thenAnswer(invocation -> {
+            release.await();
+            List<MicroblogPost> posts = invocation.getArgument(0);
+            batchSizes.add(posts.size());
+            posts.forEach(post -> post.setMessageId(ids.incrementAndGet()));
+            return posts;
+        });
+        return store;
+    }
+
+    private static MicroblogPost post(String text) {
+        return new MicroblogPost("2024-01-01T00:00:00Z", "alice", text, null, "sig");
+    }
+}
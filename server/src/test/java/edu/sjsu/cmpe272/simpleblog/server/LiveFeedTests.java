@@ -0,0 +1,92 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:live-feed-tests", "microblog.data-dir=target/test-data"})
+class LiveFeedTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private LiveFeed liveFeed;
+
+    @Test
+    void subscriberReceivesNewPostsAndReplaysFromLastEventId() throws Exception {
+        MicroblogPost earlier = messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", "alice", "earlier", null, "sig"));
+        MicroblogPost skipped = messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", "bob", "skipped", null, "sig"));
+
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/messages/stream?author=alice"))
+                .header("Last-Event-ID", Long.toString(earlier.getMessageId() - 1))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body()))) {
+            assertEquals("id:" + earlier.getMessageId(), nextLine(reader, "id:"));
+            assertTrue(nextLine(reader, "data:").contains("\"earlier\""));
+
+            MicroblogPost live = messageStore.save(new MicroblogPost("2024-01-01T00:00:01Z", "alice", "live", null, "sig"));
+            liveFeed.publish(skipped);
+            liveFeed.publish(live);
+            assertEquals("id:" + live.getMessageId(), nextLine(reader, "id:"));
+            assertTrue(nextLine(reader, "data:").contains("\"live\""));
+        }
+    }
+
+    @Test
+    void postsPublishedOutOfIdOrderAreAllDelivered() throws Exception {
+        MicroblogPost replayed = messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", "carol", "replayed", null, "sig"));
+
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/messages/stream?author=carol"))
+                .header("Last-Event-ID", Long.toString(replayed.getMessageId() - 1))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body()))) {
+            assertEquals("id:" + replayed.getMessageId(), nextLine(reader, "id:"));
+
+            // Concurrent creates commit, and so publish, in any order.
+            MicroblogPost lower = messageStore.save(new MicroblogPost("2024-01-01T00:00:01Z", "carol", "lower", null, "sig"));
+            MicroblogPost higher = messageStore.save(new MicroblogPost("2024-01-01T00:00:01Z", "carol", "higher", null, "sig"));
+            liveFeed.publish(higher);
+            liveFeed.publish(lower);
+            assertEquals("id:" + higher.getMessageId(), nextLine(reader, "id:"));
+            assertEquals("id:" + lower.getMessageId(), nextLine(reader, "id:"));
+        }
+    }
+
+    private String nextLine(BufferedReader reader, String prefix) throws Exception {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogMessageStoreTests {
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackAcrossSegmentsAfterReopen() throws Exception {
+        LogMessageStore store = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, store.save(post("alice", "post " + i)).getMessageId());
+        }
+        store.save(post("bob", "from bob"));
+        store.close();
+        assertTrue(segmentFiles().size() > 1);
+
+        LogMessageStore reopened = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        assertEquals("post 42", reopened.findById(42).orElseThrow().getMessage());
+        List<MicroblogPost> newest = reopened.findBefore(Long.MAX_VALUE, 3);
+        assertEquals(List.of(101L, 100L, 99L), newest.stream().map(MicroblogPost::getMessageId).toList());
+        assertEquals(List.of(5L, 6L), reopened.findAfter(4, 2).stream().map(MicroblogPost::getMessageId).toList());
+        assertEquals(List.of(100L, 99L), reopened.findByAuthorBefore("alice", 101, 2).stream().map(MicroblogPost::getMessageId).toList());
+        assertEquals(102, reopened.save(post("alice", "after reopen")).getMessageId());
+    }
+
+    @Test
+    void dropsTruncatedTailRecord() throws Exception {
+        LogMessageStore store = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        store.save(post("alice", "one"));
+        store.save(post("alice", "two"));
+        store.save(post("alice", "three"));
+        store.close();
+
+        // Simulate a crash part-way through writing the last record.
+        Path segment = segmentFiles().get(0);
+        long end = endOfData(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(end - 5);
+        }
+
+        LogMessageStore recovered = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        assertEquals(List.of("two", "one"), recovered.findBefore(Long.MAX_VALUE, 10).stream().map(MicroblogPost::getMessage).toList());
+        assertEquals(3, recovered.save(post("alice", "three again")).getMessageId());
+        recovered.close();
+
+        LogMessageStore again = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        assertEquals("three again", again.findById(3).orElseThrow().getMessage());
+    }
+
+    @Test
+    void dropsTailRecordWithBadChecksum() throws Exception {
+        LogMessageStore store = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        store.save(post("alice", "one"));
+        store.save(post("alice", "two"));
+        store.close();
+
+        Path segment = segmentFiles().get(0);
+        long end = endOfData(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(end - 1);
+            int last = file.read();
+            file.seek(end - 1);
+            file.write(last ^ 0xff);
+        }
+
+        LogMessageStore recovered = new LogMessageStore(dir, SEGMENT_SIZE, true);
+        assertEquals(List.of(1L), recovered.findBefore(Long.MAX_VALUE, 10).stream().map(MicroblogPost::getMessageId).toList());
+        assertTrue(recovered.findById(2).isEmpty());
+    }
+
+    private MicroblogPost post(String author, String message) {
+        return new MicroblogPost("2024-01-01T00:00:00Z", author, message, null, "sig");
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private long endOfData(Path segment) throws Exception {
+        byte[] content = Files.readAllBytes(segment);
+        int end = content.length;
+        while (end > 0 && content[end - 1] == 0) {
+            end--;
+        }
+        return end;
+    }
+}
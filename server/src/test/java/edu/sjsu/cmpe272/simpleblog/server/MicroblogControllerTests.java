@@ -0,0 +1,482 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:controller-tests", "microblog.data-dir=target/test-data"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MicroblogControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MicroblogDataRepository microblogDataRepository;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private TimelineCache timelineCache;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private PostFanout postFanout;
+
+    @Autowired
+    private MicrobloggerService microbloggerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HotPathMetrics metrics;
+
+    // Disabled unless a test enables it, so creates take the direct path.
+    @MockBean
+    private IngestQueue ingestQueue;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void registerUser() throws Exception {
+        microblogDataRepository.deleteAll();
+        timelineCache.reload();
+        searchIndex.rebuild();
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        keyPair = keyGen.generateKeyPair();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        mockMvc.perform(post("/user/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("user", "Alice", "publicKey", publicKey))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void batchReportsPerItemResults() throws Exception {
+        Map<String, Object> forged = signedPost("forged");
+        forged.put("message", "tampered");
+        List<Map<String, Object>> batch = List.of(signedPost("one"), forged, signedPost("two"));
+
+        mockMvc.perform(post("/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]['message-id']").isNumber())
+                .andExpect(jsonPath("$[1].error").exists())
+                .andExpect(jsonPath("$[2]['message-id']").isNumber());
+    }
+
+    @Test
+    void listPagesNewestFirstWithCursor() throws Exception {
+        List<Map<String, Object>> batch = List.of(signedPost("a"), signedPost("b"), signedPost("c"));
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)));
+
+        String cursor = mockMvc.perform(post("/messages/list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"limit\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].message").value("c"))
+                .andExpect(jsonPath("$[1].message").value("b"))
+                .andExpect(header().exists(MicroblogController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(MicroblogController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(post("/messages/list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("limit", 2, "cursor", cursor))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("a"))
+                .andExpect(header().doesNotExist(MicroblogController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void authorTimelineOnlyReturnsThatAuthor() throws Exception {
+        messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", "Bob", "not alice", null, "sig"));
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(signedPost("first"), signedPost("second")))));
+
+        mockMvc.perform(get("/user/alice/messages").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("second"))
+                .andExpect(header().exists(MicroblogController.NEXT_CURSOR_HEADER));
+        mockMvc.perform(get("/user/bob/messages"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("not alice"))
+                .andExpect(jsonPath("$[0].author").value("Bob"));
+        mockMvc.perform(get("/user/ALICE/messages"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void searchMatchesAllTermsNewestFirst() throws Exception {
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(
+                        signedPost("Coffee and code"), signedPost("just coffee"), signedPost("more CODE, more coffee")))));
+
+        String cursor = mockMvc.perform(post("/messages/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"coffee code\", \"limit\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("more CODE, more coffee"))
+                .andReturn().getResponse().getHeader(MicroblogController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(post("/messages/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("query", "coffee code", "limit", 5, "cursor", cursor))))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("Coffee and code"));
+    }
+
+    @Test
+    void stageTimersAreExposedForPrometheus() throws Exception {
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(signedPost("timed")))));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("microblog_stage_seconds{stage=\"verify\",quantile=\"0.99\"")))
+                .andExpect(content().string(containsString("microblog_stage_seconds_count{stage=\"persist\"")))
+                .andExpect(content().string(containsString("microblog_create_rejected_total{reason=\"bad_signature\"")));
+    }
+
+    @Test
+    void hotPageIsServedFromTimelineCache() throws Exception {
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(signedPost("cached")))));
+        long hits = timelineCache.stats().get("hits");
+
+        mockMvc.perform(post("/messages/list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"limit\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].message").value("cached"));
+        assertEquals(hits + 1, timelineCache.stats().get("hits"));
+    }
+
+    @Test
+    void attachmentIsStoredOnceAndServedWithRanges() throws Exception {
+        String attachment = Base64.getEncoder().encodeToString("hello attachment".getBytes());
+        String body = objectMapper.writeValueAsString(List.of(signedPost("x", attachment), signedPost("y", attachment)));
+        String result = mockMvc.perform(post("/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(result).get(0).get("message-id").asLong();
+
+        mockMvc.perform(post("/messages/list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"limit\": 2}"))
+                .andExpect(jsonPath("$[0].attachment").doesNotExist())
+                .andExpect(jsonPath("$[0].attachmentSize").value(16))
+                .andExpect(jsonPath("$[0].attachmentHash").value(AttachmentStore.sha256("hello attachment".getBytes())))
+                .andExpect(jsonPath("$[1].attachmentHash").value(AttachmentStore.sha256("hello attachment".getBytes())));
+
+        String etag = mockMvc.perform(get("/messages/" + id + "/attachment"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello attachment"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/messages/" + id + "/attachment").header(HttpHeaders.RANGE, "bytes=6-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 6-15/16"))
+                .andExpect(content().string("attachment"));
+
+        mockMvc.perform(get("/messages/" + id + "/attachment").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void attachmentsAreNeverServedAsMarkup() throws Exception {
+        String attachment = Base64.getEncoder().encodeToString("<script>alert(1)</script>".getBytes());
+        Map<String, Object> html = signedPost("html", attachment);
+        html.put("attachmentType", "text/html");
+        Map<String, Object> png = signedPost("png", attachment);
+        png.put("attachmentType", "image/png; name=x.png");
+        String result = mockMvc.perform(post("/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(html, png))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/messages/" + objectMapper.readTree(result).get(0).get("message-id").asLong() + "/attachment"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment"));
+        mockMvc.perform(get("/messages/" + objectMapper.readTree(result).get(1).get("message-id").asLong() + "/attachment"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"));
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, MicroblogController.attachmentType("image/svg+xml"));
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, MicroblogController.attachmentType("not a type"));
+    }
+
+    @Test
+    void listAnswersUnchangedPageWithNotModified() throws Exception {
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(signedPost("first")))));
+
+        String etag = mockMvc.perform(get("/messages/list").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/messages/list").param("limit", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(post("/messages/list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .content("{\"limit\": 5}"))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/messages/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(signedPost("second")))));
+        String newer = mockMvc.perform(get("/messages/list").param("limit", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].message").value("second"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A save that lands below the newest id (replicated, or committed out of order) still changes the page.
+        long lowest = messageStore.findBefore(Long.MAX_VALUE, 5).stream().mapToLong(MicroblogPost::getMessageId).min().getAsLong();
+        MicroblogPost late = new MicroblogPost("2024-01-01T00:00:00Z", "alice", "late", null, "sig");
+        late.setMessageId(lowest - 1);
+        messageStore.replicate(List.of(late)).forEach(postFanout::saved);
+        mockMvc.perform(get("/messages/list").param("limit", "5").header(HttpHeaders.IF_NONE_MATCH, newer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].message").value("late"));
+    }
+
+    @Test
+    void listFiltersByPostedTime() throws Exception {
+        for (String day : List.of("01", "02", "03")) {
+            messageStore.save(new MicroblogPost("2024-01-" + day + "T12:00:00Z", "alice", "day " + day, null, "sig"));
+        }
+        // As if stored before postedAt existed; the startup backfill derives it from the date.
+        jdbcTemplate.update("update microblog_post set posted_at = null");
+        ((JpaMessageStore) messageStore).backfill();
+
+        mockMvc.perform(get("/messages/list").param("since", "2024-01-02T00:00:00Z").param("until", "2024-01-03T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("day 02"));
+        mockMvc.perform(get("/messages/list").param("since", "2024-01-02T00:00:00+00:00"))
+                .andExpect(jsonPath("$[0].message").value("day 03"))
+                .andExpect(jsonPath("$[1].message").value("day 02"))
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/messages/list").param("until", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cborCarriesSignaturesAsRawBytes() throws Exception {
+        ObjectMapper cborMapper = new CBORMapper();
+        Map<String, Object> post = signedPost("binary", Base64.getEncoder().encodeToString(new byte[]{1, 2, 3}));
+        byte[] signature = Base64.getDecoder().decode((String) post.get("signature"));
+        post.put("signature", signature);
+        post.put("attachment", new byte[]{1, 2, 3});
+
+        mockMvc.perform(post("/messages/create")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(cborMapper.writeValueAsBytes(post)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['message-id']").isNumber());
+
+        byte[] page = mockMvc.perform(post("/messages/list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content("{\"limit\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode message = cborMapper.readTree(page).get(0);
+        assertEquals("binary", message.get("message").asText());
+        assertTrue(message.get("signature").isBinary());
+        assertArrayEquals(signature, message.get("signature").binaryValue());
+    }
+
+    @Test
+    void cborIsChosenByQualityAndSurvivesRowsWithBadSignatures() throws Exception {
+        messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", "alice", "legacy", null, "not base64!"));
+
+        byte[] page = mockMvc.perform(get("/messages/list").param("limit", "1")
+                        .header(HttpHeaders.ACCEPT, "application/cbor, */*;q=0.1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("not base64!", new CBORMapper().readTree(page).get(0).get("signature").asText());
+
+        mockMvc.perform(get("/messages/list").header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor;q=0.9"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/messages/list").header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/messages/list").header(HttpHeaders.ACCEPT, "application/"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void failedIngestCommitIsAJsonError() throws Exception {
+        when(ingestQueue.isEnabled()).thenReturn(true);
+        when(ingestQueue.submit(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("disk full")));
+        double failures = metrics.ingestFailures.count();
+
+        mockMvc.perform(post("/messages/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signedPost("lost"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("ingest failed"));
+        assertEquals(failures + 1, metrics.ingestFailures.count());
+    }
+
+    @Test
+    void authorBucketIsOnlyChargedForVerifiedPosts() throws Exception {
+        // More forgeries under alice's name than her burst of 50; none of them may cost her a token.
+        for (int i = 0; i < 55; i++) {
+            Map<String, Object> forged = signedPost("forged " + i);
+            forged.put("message", "tampered " + i);
+            mockMvc.perform(post("/messages/create")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(forged)))
+                    .andExpect(jsonPath("$.error").value("failed to create message"));
+        }
+        mockMvc.perform(post("/messages/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signedPost("genuine"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['message-id']").isNumber());
+
+        // Larger than the IP burst of 200: refused as a bad request, never with a Retry-After.
+        List<Map<String, Object>> oversized = new ArrayList<>();
+        for (int i = 0; i < 201; i++) {
+            oversized.add(Map.of("date", "d", "author", "alice", "message", "m", "signature", "c2ln"));
+        }
+        mockMvc.perform(post("/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(oversized)))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void reRegisteredKeyReplacesTheCachedOne() throws Exception {
+        Map<String, Object> oldKeyPost = signedPost("old key");
+        mockMvc.perform(post("/messages/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signedPost("warms the cache"))))
+                .andExpect(jsonPath("$['message-id']").isNumber());
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        keyPair = keyGen.generateKeyPair();
+        mockMvc.perform(post("/user/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("user", "alice",
+                                "publicKey", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/messages/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(oldKeyPost)))
+                .andExpect(jsonPath("$.error").value("failed to create message"));
+        mockMvc.perform(post("/messages/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signedPost("new key"))))
+                .andExpect(jsonPath("$['message-id']").isNumber());
+    }
+
+    @Test
+    void unknownAuthorsAreAskedForRemotelyOnceWhileMissing() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        microbloggerService.setRemoteLookup(user -> {
+            lookups.incrementAndGet();
+            return null;
+        });
+        try {
+            Map<String, Object> ghost = signedPost("boo");
+            ghost.put("author", "ghost");
+            for (int i = 0; i < 3; i++) {
+                mockMvc.perform(post("/messages/create")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(ghost)))
+                        .andExpect(jsonPath("$.error").value("failed to create message"));
+            }
+            // Lookups outside the admitted post path stay local.
+            mockMvc.perform(get("/user/ghost/public-key")).andExpect(status().isBadRequest());
+            assertEquals(1, lookups.get());
+        } finally {
+            microbloggerService.setRemoteLookup(null);
+        }
+    }
+
+    private Map<String, Object> signedPost(String text) throws Exception {
+        return signedPost(text, null);
+    }
+
+    private Map<String, Object> signedPost(String text, String attachment) throws Exception {
+        String date = "2024-01-01T00:00:00Z";
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        SigningPayload.update(signature, date, "alice", text, attachment);
+
+        Map<String, Object> post = new LinkedHashMap<>();
+        post.put("date", date);
+        post.put("author", "alice");
+        post.put("message", text);
+        post.put("attachment", attachment);
+        post.put("signature", Base64.getEncoder().encodeToString(signature.sign()));
+        return post;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Users against the default file-backed database, across a restart. */
+class MicrobloggerServiceTests {
+
+    @Test
+    void usersAreFoundInAnyCaseAndSurviveARestart() {
+        String dataDir = "./target/test-data/users-" + System.nanoTime();
+        try (ConfigurableApplicationContext context = start(dataDir)) {
+            MicrobloggerService service = context.getBean(MicrobloggerService.class);
+            service.createUser("Ivan", "key-ivan");
+            assertEquals("key-ivan", service.getPublicKey("ivan"));
+            assertEquals("key-ivan", service.getPublicKey("IVAN"));
+            assertNull(service.getPublicKey("ivan2"));
+
+            // Under a Turkish default locale "I".toLowerCase() is a dotless i; normalization must not follow it.
+            Locale previous = Locale.getDefault();
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            try {
+                assertEquals("key-ivan", service.getPublicKey("IVAN"));
+            } finally {
+                Locale.setDefault(previous);
+            }
+        }
+
+        // A fresh context re-warms its index from the repository.
+        try (ConfigurableApplicationContext context = start(dataDir)) {
+            MicrobloggerService service = context.getBean(MicrobloggerService.class);
+            assertEquals("key-ivan", service.getPublicKey("Ivan"));
+            assertEquals(1, service.getUsernames().size());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String dataDir) {
+        return new SpringApplicationBuilder(MicroblogServer.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--microblog.data-dir=" + dataDir);
+    }
+}
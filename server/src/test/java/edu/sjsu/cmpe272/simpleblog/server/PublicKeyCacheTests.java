@@ -0,0 +1,67 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublicKeyCacheTests {
+
+    @Test
+    void rotatedKeyReplacesTheCachedOneWithoutAnEviction() throws Exception {
+        KeyPair old = keyPair();
+        KeyPair rotated = keyPair();
+        PublicKeyCache cache = new PublicKeyCache(10);
+
+        PublicKey first = cache.get("alice", encode(old));
+        assertSame(first, cache.get("alice", encode(old)));
+
+        // No evict() call: the encoded key alone must tell the entry is stale.
+        PublicKey current = cache.get("alice", encode(rotated));
+        assertEquals(rotated.getPublic(), current);
+        assertEquals(1, cache.size());
+
+        MicroblogPost post = new MicroblogPost("2024-01-01T00:00:00Z", "alice", "hello", null, sign(old, "hello"));
+        assertFalse(VerifySignature.AuthenticateSignature(post, current));
+        post.setSignature(sign(rotated, "hello"));
+        assertTrue(VerifySignature.AuthenticateSignature(post, current));
+    }
+
+    @Test
+    void staysWithinCapacityAndRefusesUnparsableKeys() throws Exception {
+        PublicKeyCache cache = new PublicKeyCache(2);
+        String key = encode(keyPair());
+        for (String user : new String[] {"a", "b", "c", "d"}) {
+            cache.get(user, key);
+        }
+        assertEquals(2, cache.size());
+        assertNull(cache.get("e", "not a key"));
+        assertNull(cache.get("e", null));
+    }
+
+    private static KeyPair keyPair() throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        return keyGen.generateKeyPair();
+    }
+
+    private static String encode(KeyPair keyPair) {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    private static String sign(KeyPair keyPair, String message) throws Exception {
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        SigningPayload.update(signature, "2024-01-01T00:00:00Z", "alice", message, null);
+        return Base64.getEncoder().encodeToString(signature.sign());
+    }
+}
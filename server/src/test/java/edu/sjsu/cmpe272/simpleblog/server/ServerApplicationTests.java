@@ -3,7 +3,7 @@ package edu.sjsu.cmpe272.simpleblog.server;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:microblog", "microblog.data-dir=target/test-data"})
 class ServerApplicationTests {
 
     @Test
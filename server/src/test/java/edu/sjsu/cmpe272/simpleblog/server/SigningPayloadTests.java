@@ -0,0 +1,97 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SigningPayloadTests {
+    // The client's SigningPayloadTests pins the same bytes; change both or neither.
+    static final String WITH_ATTACHMENT = "73696d706c65626c6f672d7369672d76310000000000000014323032342d30312d30315430303a30303a30305a"
+            + "0000000000000005616c696365000000000000000a68c3a96c6c6f20e29c930000000000000003010203";
+    static final String WITHOUT_ATTACHMENT = "73696d706c65626c6f672d7369672d76310000000000000014323032342d30312d30315430303a30303a30305a"
+            + "0000000000000005616c696365000000000000000a68c3a96c6c6f20e29c93ffffffffffffffff";
+
+    @Test
+    void matchesGoldenVectors() throws Exception {
+        assertEquals(WITH_ATTACHMENT, hex("2024-01-01T00:00:00Z", "alice", "héllo ✓", Base64.getEncoder().encodeToString(new byte[]{1, 2, 3})));
+        assertEquals(WITHOUT_ATTACHMENT, hex("2024-01-01T00:00:00Z", "alice", "héllo ✓", null));
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        SigningPayload.write(streamed, "2024-01-01T00:00:00Z", "alice", "héllo ✓", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+        assertArrayEquals(HexFormat.of().parseHex(WITH_ATTACHMENT), streamed.toByteArray());
+    }
+
+    @Test
+    void fieldBoundariesAreSigned() throws Exception {
+        assertNotEquals(hex("d", "ab", "c", null), hex("d", "a", "bc", null));
+        assertNotEquals(hex("d", "a", "m", ""), hex("d", "a", "m", null));
+    }
+
+    @Test
+    void malformedAttachmentsDoNotVerify() throws Exception {
+        KeyPair keyPair = keyPair();
+        MicroblogPost post = signed(keyPair, "AQID");
+        post.setAttachment("AQI");
+        assertFalse(VerifySignature.AuthenticateSignature(post, keyPair.getPublic()));
+        post.setAttachment("AQIŁ");
+        assertFalse(VerifySignature.AuthenticateSignature(post, keyPair.getPublic()));
+    }
+
+    @Test
+    void verifyAllocationDoesNotGrowWithAttachment() throws Exception {
+        KeyPair keyPair = keyPair();
+        MicroblogPost small = signed(keyPair, attachment(1 << 10));
+        MicroblogPost large = signed(keyPair, attachment(8 << 20));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(VerifySignature.AuthenticateSignature(small, keyPair.getPublic()));
+            assertTrue(VerifySignature.AuthenticateSignature(large, keyPair.getPublic()));
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        assertTrue(VerifySignature.AuthenticateSignature(large, keyPair.getPublic()));
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 256 * 1024, "verifying an 8 MiB attachment allocated " + allocated + " bytes");
+    }
+
+    private static String hex(String date, String author, String message, String attachment) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SigningPayload.write(out, date, author, message, attachment);
+        return HexFormat.of().formatHex(out.toByteArray());
+    }
+
+    private static MicroblogPost signed(KeyPair keyPair, String attachment) throws Exception {
+        MicroblogPost post = new MicroblogPost("2024-01-01T00:00:00Z", "alice", "hello", attachment, null);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        SigningPayload.update(signature, post.getDate(), post.getAuthor(), post.getMessage(), attachment);
+        post.setSignature(Base64.getEncoder().encodeToString(signature.sign()));
+        return post;
+    }
+
+    private static String attachment(int bytes) {
+        byte[] content = new byte[bytes];
+        new Random(42).nextBytes(content);
+        return Base64.getEncoder().encodeToString(content);
+    }
+
+    private static KeyPair keyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
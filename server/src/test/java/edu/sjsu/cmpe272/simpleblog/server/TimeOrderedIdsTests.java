@@ -0,0 +1,61 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:time-ids", "microblog.data-dir=target/test-data", "microblog.ids=time"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class TimeOrderedIdsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private MessageIdGenerator idGenerator;
+
+    @Test
+    void idsIncreaseWithinOneMillisecond() {
+        long previous = idGenerator.next();
+        for (int i = 0; i < 100_000; i++) {
+            long id = idGenerator.next();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        long now = System.currentTimeMillis();
+        assertTrue(Math.abs(TimeOrderedIdGenerator.timeOf(previous).toEpochMilli() - now) < 5_000);
+        assertEquals(Long.MAX_VALUE, TimeOrderedIdGenerator.idAt(Instant.parse("9999-01-01T00:00:00Z").toEpochMilli()));
+        assertEquals(0, TimeOrderedIdGenerator.idAt(0));
+    }
+
+    @Test
+    void sinceAndUntilMatchTheSignedDateNotTheIdTime() throws Exception {
+        // Saved in the opposite order to their signed dates, so id time and postedAt disagree.
+        MicroblogPost march = messageStore.save(new MicroblogPost("2024-03-01T00:00:00Z", "alice", "march", null, "sig"));
+        MicroblogPost january = messageStore.save(new MicroblogPost("2024-01-01T00:00:00Z", "alice", "january", null, "sig"));
+        assertTrue(january.getMessageId() > march.getMessageId());
+
+        mockMvc.perform(get("/messages/list").param("since", "2024-02-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("march"));
+        mockMvc.perform(get("/messages/list").param("until", "2024-02-01T00:00:00Z").param("limit", "20"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].message").value("january"));
+    }
+}
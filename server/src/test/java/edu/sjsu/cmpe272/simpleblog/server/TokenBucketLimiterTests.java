@@ -0,0 +1,49 @@
+package edu.sjsu.cmpe272.simpleblog.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTests {
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void burstThenRefillAtConfiguredRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 5, 1000, now::get);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("bot", 1));
+        }
+        long wait = limiter.tryAcquire("bot", 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait);
+        assertEquals(0, limiter.tryAcquire("human", 1), "other keys keep their own bucket");
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("bot", 1));
+        assertTrue(limiter.tryAcquire("bot", 1) > 0);
+    }
+
+    @Test
+    void costLargerThanBurstIsRejectedOutright() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 20, 1000, now::get);
+        // No wait could ever admit it, so there is no retry time to report.
+        assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire("client", 21));
+        assertEquals(0, limiter.tryAcquire("client", 20));
+    }
+
+    @Test
+    void refilledBucketsAreSwept() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 2, now::get);
+        limiter.tryAcquire("a", 1);
+        limiter.tryAcquire("b", 1);
+        limiter.tryAcquire("c", 1);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        // The sweep runs before this key is added, so the idle ones are gone and "a" starts full.
+        assertEquals(0, limiter.tryAcquire("a", 1));
+        assertEquals(0, limiter.tryAcquire("b", 1));
+    }
+}